@@ -0,0 +1,142 @@
+package org.gw.nearmanager.benchmark;
+
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Прогоняет бенчмарки из allocation-budgets.properties с GC-профайлером и
+ * завершает процесс с кодом 1, если gc.alloc.rate.norm превышает бюджет.
+ * Ключ бюджета: {@code Класс.метод} или {@code Класс.метод@значение[,значение]} для параметризованных.
+ */
+public final class AllocationGate {
+
+    private static final String BUDGETS = "allocation-budgets.properties";
+    private static final String[] ALLOC_LABELS = {"gc.alloc.rate.norm", "·gc.alloc.rate.norm"};
+
+    private AllocationGate() {}
+
+    public static void main(String[] args) throws IOException, RunnerException {
+        Map<String, Double> budgets = loadBudgets();
+        if (budgets.isEmpty()) {
+            System.err.println("Бюджеты аллокаций не заданы: " + BUDGETS);
+            System.exit(1);
+        }
+
+        Set<String> classes = new LinkedHashSet<>();
+        for (String key : budgets.keySet()) {
+            classes.add(key.substring(0, key.indexOf('.')));
+        }
+
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .mode(Mode.Throughput)
+                .timeUnit(TimeUnit.MICROSECONDS)
+                .warmupIterations(2)
+                .warmupTime(TimeValue.seconds(1))
+                .measurementIterations(3)
+                .measurementTime(TimeValue.seconds(1))
+                .forks(1)
+                .addProfiler(GCProfiler.class);
+        for (String simpleName : classes) {
+            options.include("\\." + Pattern.quote(simpleName) + "\\.");
+        }
+
+        Collection<RunResult> results = new Runner(options.build()).run();
+
+        List<String> failures = new ArrayList<>();
+        Set<String> measured = new LinkedHashSet<>();
+        for (RunResult result : results) {
+            String key = keyOf(result.getParams());
+            Result<?> allocation = allocation(result);
+            if (allocation == null) {
+                failures.add(key + ": GC-профайлер не вернул gc.alloc.rate.norm");
+                continue;
+            }
+
+            double bytes = allocation.getScore();
+            Double budget = budgets.get(key);
+            measured.add(key);
+            if (budget == null) {
+                System.out.printf("[alloc] %s: %.0f B/op (бюджет не задан)%n", key, bytes);
+            } else if (bytes > budget) {
+                failures.add(String.format("%s: %.0f B/op > %.0f B/op", key, bytes, budget));
+            } else {
+                System.out.printf("[alloc] %s: %.0f B/op <= %.0f B/op%n", key, bytes, budget);
+            }
+        }
+
+        for (String key : budgets.keySet()) {
+            if (!measured.contains(key)) {
+                System.out.println("[alloc] " + key + ": бенчмарк не найден, бюджет пропущен");
+            }
+        }
+
+        if (!failures.isEmpty()) {
+            System.err.println("Превышены бюджеты аллокаций:");
+            failures.forEach(f -> System.err.println("  " + f));
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Double> loadBudgets() throws IOException {
+        Properties properties = new Properties();
+        try (InputStream in = AllocationGate.class.getClassLoader().getResourceAsStream(BUDGETS)) {
+            if (in == null) return Map.of();
+            properties.load(in);
+        }
+
+        Map<String, Double> budgets = new TreeMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            budgets.put(key, Double.parseDouble(properties.getProperty(key).trim()));
+        }
+        return budgets;
+    }
+
+    private static String keyOf(BenchmarkParams params) {
+        String benchmark = params.getBenchmark();
+        int method = benchmark.lastIndexOf('.');
+        int owner = benchmark.lastIndexOf('.', method - 1);
+        StringBuilder key = new StringBuilder(benchmark.substring(owner + 1));
+
+        Collection<String> paramKeys = params.getParamsKeys();
+        if (!paramKeys.isEmpty()) {
+            key.append('@');
+            boolean first = true;
+            for (String paramKey : paramKeys) {
+                if (!first) key.append(',');
+                key.append(params.getParam(paramKey));
+                first = false;
+            }
+        }
+        return key.toString();
+    }
+
+    private static Result<?> allocation(RunResult result) {
+        Map<String, Result> secondary = result.getSecondaryResults();
+        for (String label : ALLOC_LABELS) {
+            Result<?> found = secondary.get(label);
+            if (found != null) return found;
+        }
+        return null;
+    }
+}
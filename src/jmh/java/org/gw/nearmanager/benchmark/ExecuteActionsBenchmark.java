@@ -0,0 +1,69 @@
+package org.gw.nearmanager.benchmark;
+
+import org.bukkit.entity.Player;
+import org.gw.nearmanager.managers.ConfigManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecuteActionsBenchmark {
+
+    private static final Runnable NO_LIST = () -> {};
+
+    @Param({"near.near", "near.no-players", "errors.player-not-found", "bossbar.activated"})
+    private String path;
+
+    private ProximityFixture fixture;
+    private Player viewer;
+    private Map<String, String> placeholders;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new ProximityFixture(2, PlayerLayout.CLUSTERED);
+        viewer = fixture.players[0];
+        String target = fixture.players[1].getName();
+
+        ConfigManager config = fixture.configManager;
+        int radius = fixture.radius(viewer);
+        placeholders = switch (path) {
+            case "near.near" -> Map.of(
+                    "radius", config.formatNumber(radius),
+                    "blocks-word-format", config.getBlockDeclension(radius),
+                    "near-players", "");
+            case "near.no-players" -> Map.of(
+                    "radius", config.formatNumber(radius),
+                    "blocks-word-format", config.getBlockDeclension(radius));
+            default -> Map.of("player", target);
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public Object executeActions() {
+        fixture.configManager.executeActions(viewer, path, placeholders, NO_LIST);
+        return fixture.server.takeOutput();
+    }
+}
@@ -0,0 +1,94 @@
+package org.gw.nearmanager.benchmark;
+
+import net.kyori.adventure.text.Component;
+import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.YamlConfiguration;
+import org.gw.nearmanager.utils.HexColors;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HexColorsBenchmark {
+
+    private String[] messages;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        YamlConfiguration config;
+        try (InputStream in = HexColorsBenchmark.class.getClassLoader().getResourceAsStream("config.yml")) {
+            if (in == null) throw new IllegalStateException("config.yml не найден в classpath");
+            config = YamlConfiguration.loadConfiguration(new InputStreamReader(in, StandardCharsets.UTF_8));
+        }
+
+        List<String> collected = new ArrayList<>();
+        collect(config, collected);
+        messages = collected.toArray(new String[0]);
+    }
+
+    @Benchmark
+    public Component translateToComponent() {
+        return HexColors.translateToComponent(nextMessage());
+    }
+
+    @Benchmark
+    public String translate() {
+        return HexColors.translate(nextMessage());
+    }
+
+    private String nextMessage() {
+        int i = next;
+        next = i + 1 == messages.length ? 0 : i + 1;
+        return messages[i];
+    }
+
+    private static void collect(ConfigurationSection section, List<String> out) {
+        for (String key : section.getKeys(false)) {
+            ConfigurationSection child = section.getConfigurationSection(key);
+            if (child != null) {
+                collect(child, out);
+            } else if (section.isList(key)) {
+                for (String line : section.getStringList(key)) {
+                    addMessage(line, out);
+                }
+            } else if (section.isString(key)) {
+                addMessage(section.getString(key), out);
+            }
+        }
+    }
+
+    private static void addMessage(String line, List<String> out) {
+        if (line == null) return;
+
+        String text = line;
+        if (text.startsWith("[")) {
+            int end = text.indexOf(']');
+            if (end == -1) return;
+            String type = text.substring(1, end);
+            if (type.equals("sound") || type.endsWith("command")) return;
+            text = text.substring(end + 1).trim();
+        }
+        if (text.indexOf('&') >= 0 || text.indexOf('<') >= 0) out.add(text);
+    }
+}
@@ -0,0 +1,107 @@
+package org.gw.nearmanager.benchmark;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.gw.nearmanager.listeners.PlayerCacheInvalidationListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MoveListenerBenchmark {
+
+    private static final double STEP = 1.5;
+
+    @Param({"50", "500", "2000", "5000"})
+    private int players;
+
+    @Param({"UNIFORM", "CLUSTERED", "SPREAD"})
+    private PlayerLayout layout;
+
+    private ProximityFixture fixture;
+    private PlayerCacheInvalidationListener listener;
+    private PlayerMoveEvent[] forward;
+    private PlayerMoveEvent[] backward;
+    private PlayerMoveEvent[] inPlace;
+    private boolean[] advanced;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new ProximityFixture(players, layout);
+        listener = new PlayerCacheInvalidationListener(fixture.nearPlayerManager, fixture.bossBarManager,
+                fixture.spatialGridManager, fixture.configManager);
+
+        forward = new PlayerMoveEvent[players];
+        backward = new PlayerMoveEvent[players];
+        inPlace = new PlayerMoveEvent[players];
+        advanced = new boolean[players];
+        for (int i = 0; i < players; i++) {
+            Player player = fixture.players[i];
+            Location origin = player.getLocation();
+            origin.setX(Math.floor(origin.getX()) + 0.25);
+            Location stepped = origin.clone().add(STEP, 0.0, 0.0);
+            Location nudged = origin.clone().add(0.5, 0.0, 0.0);
+
+            forward[i] = new PlayerMoveEvent(player, origin, stepped);
+            backward[i] = new PlayerMoveEvent(player, stepped, origin);
+            inPlace[i] = new PlayerMoveEvent(player, origin, nudged);
+            fixture.server.moveTo(player, origin);
+            fixture.spatialGridManager.update(player, origin);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void warmCache() {
+        for (int i = 0; i < players; i++) {
+            if (advanced[i]) {
+                listener.onMove(backward[i]);
+                advanced[i] = false;
+            }
+        }
+        fixture.positionSnapshotManager.capture();
+        fixture.warmCache();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public void moveAcrossBlock() {
+        int i = nextPlayer();
+        PlayerMoveEvent event = advanced[i] ? backward[i] : forward[i];
+        advanced[i] = !advanced[i];
+        listener.onMove(event);
+    }
+
+    @Benchmark
+    public void moveWithinBlock() {
+        listener.onMove(inPlace[nextPlayer()]);
+    }
+
+    private int nextPlayer() {
+        int i = next;
+        next = i + 1 == players ? 0 : i + 1;
+        return i;
+    }
+}
@@ -0,0 +1,114 @@
+package org.gw.nearmanager.benchmark;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.gw.nearmanager.managers.NearCacheManager;
+import org.gw.nearmanager.managers.NearPlayerManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NearCacheManagerBenchmark {
+
+    @Param({"50", "500", "2000", "5000"})
+    private int players;
+
+    @Param({"UNIFORM", "CLUSTERED", "SPREAD"})
+    private PlayerLayout layout;
+
+    private ProximityFixture fixture;
+    private NearCacheManager cache;
+    private UUID[] viewers;
+    private UUID[] strangers;
+    private UUID worldId;
+    private int[] radii;
+    private NearCacheManager.QueryRegion[] regions;
+    private NearPlayerManager.NearResult[] results;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new ProximityFixture(players, layout);
+        cache = new NearCacheManager(fixture.configManager, fixture.metricsManager);
+        worldId = fixture.world.getUID();
+
+        viewers = new UUID[players];
+        strangers = new UUID[players];
+        radii = new int[players];
+        regions = new NearCacheManager.QueryRegion[players];
+        results = new NearPlayerManager.NearResult[players];
+        for (int i = 0; i < players; i++) {
+            Player viewer = fixture.players[i];
+            Location location = viewer.getLocation();
+            viewers[i] = viewer.getUniqueId();
+            strangers[i] = new UUID(1L, i + 1L);
+            radii[i] = fixture.radius(viewer);
+            regions[i] = new NearCacheManager.QueryRegion(worldId, location.getX(), location.getY(), location.getZ(),
+                    radii[i], fixture.eligibilityManager.getHiddenMask(viewer));
+            results[i] = fixture.nearPlayerManager.getNearbyPlayers(viewer, radii[i]);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void fill() {
+        cache.clear();
+        for (int i = 0; i < players; i++) {
+            cache.put(viewers[i], regions[i], results[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public NearPlayerManager.NearResult getHit() {
+        int i = nextViewer();
+        return cache.getCached(viewers[i], worldId, radii[i]);
+    }
+
+    @Benchmark
+    public NearPlayerManager.NearResult getMiss() {
+        int i = nextViewer();
+        return cache.getCached(strangers[i], worldId, radii[i]);
+    }
+
+    @Benchmark
+    public void put() {
+        int i = nextViewer();
+        cache.put(viewers[i], regions[i], results[i]);
+    }
+
+    @Benchmark
+    public void putAndInvalidate() {
+        int i = nextViewer();
+        cache.put(viewers[i], regions[i], results[i]);
+        cache.invalidate(viewers[i]);
+    }
+
+    private int nextViewer() {
+        int i = next;
+        next = i + 1 == players ? 0 : i + 1;
+        return i;
+    }
+}
@@ -0,0 +1,72 @@
+package org.gw.nearmanager.benchmark;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.gw.nearmanager.managers.NearDisplayManager;
+import org.gw.nearmanager.managers.NearPlayerManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NearListBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int lines;
+
+    private ProximityFixture fixture;
+    private NearDisplayManager nearDisplayManager;
+    private Player viewer;
+    private NearPlayerManager.NearResult result;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new ProximityFixture(lines + 1, PlayerLayout.CLUSTERED);
+        nearDisplayManager = new NearDisplayManager(fixture.configManager, fixture.spatialGridManager,
+                fixture.positionSnapshotManager, fixture.metricsManager);
+        viewer = fixture.players[0];
+        fixture.server.grantAll(viewer);
+
+        Location origin = viewer.getLocation();
+        List<NearPlayerManager.PlayerDistance> nearby = new ArrayList<>(lines);
+        for (int i = 1; i <= lines; i++) {
+            Player target = fixture.players[i];
+            Location location = target.getLocation();
+            nearby.add(new NearPlayerManager.PlayerDistance(target.getUniqueId(), target.getName(),
+                    origin.distance(location), location.getX(), location.getZ()));
+        }
+        nearby.sort(Comparator.comparingDouble(NearPlayerManager.PlayerDistance::distance));
+        result = new NearPlayerManager.NearResult(List.copyOf(nearby), false);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public Object sendNearList() {
+        nearDisplayManager.sendNearList(viewer, result);
+        return fixture.server.takeOutput();
+    }
+}
@@ -0,0 +1,77 @@
+package org.gw.nearmanager.benchmark;
+
+import org.bukkit.entity.Player;
+import org.gw.nearmanager.managers.NearPlayerManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NearPlayerManagerBenchmark {
+
+    @Param({"50", "500", "2000", "5000"})
+    private int players;
+
+    @Param({"UNIFORM", "CLUSTERED", "SPREAD"})
+    private PlayerLayout layout;
+
+    private ProximityFixture fixture;
+    private int[] radii;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new ProximityFixture(players, layout);
+        radii = new int[players];
+        for (int i = 0; i < players; i++) {
+            radii[i] = fixture.radius(fixture.players[i]);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void warmCache() {
+        fixture.warmCache();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public NearPlayerManager.NearResult scan() {
+        int i = nextViewer();
+        Player viewer = fixture.players[i];
+        fixture.nearPlayerManager.invalidateCache(viewer.getUniqueId());
+        return fixture.nearPlayerManager.getNearbyPlayers(viewer, radii[i]);
+    }
+
+    @Benchmark
+    public NearPlayerManager.NearResult cached() {
+        int i = nextViewer();
+        return fixture.nearPlayerManager.getNearbyPlayers(fixture.players[i], radii[i]);
+    }
+
+    private int nextViewer() {
+        int i = next;
+        next = i + 1 == players ? 0 : i + 1;
+        return i;
+    }
+}
@@ -0,0 +1,62 @@
+package org.gw.nearmanager.benchmark;
+
+import java.util.Random;
+
+public enum PlayerLayout {
+
+    UNIFORM {
+        @Override
+        void place(Random random, int count, double[] xs, double[] zs) {
+            double half = Math.sqrt(count) * 16.0;
+            for (int i = 0; i < count; i++) {
+                xs[i] = (random.nextDouble() * 2.0 - 1.0) * half;
+                zs[i] = (random.nextDouble() * 2.0 - 1.0) * half;
+            }
+        }
+    },
+
+    CLUSTERED {
+        @Override
+        void place(Random random, int count, double[] xs, double[] zs) {
+            for (int i = 0; i < count; i++) {
+                if (random.nextInt(5) == 0) {
+                    xs[i] = (random.nextDouble() * 2.0 - 1.0) * 1500.0;
+                    zs[i] = (random.nextDouble() * 2.0 - 1.0) * 1500.0;
+                } else {
+                    xs[i] = random.nextGaussian() * 24.0;
+                    zs[i] = random.nextGaussian() * 24.0;
+                }
+            }
+        }
+    },
+
+    PAIRED {
+        @Override
+        void place(Random random, int count, double[] xs, double[] zs) {
+            double half = Math.sqrt(count) * 64.0;
+            for (int i = 0; i < count; i += 2) {
+                xs[i] = (random.nextDouble() * 2.0 - 1.0) * half;
+                zs[i] = (random.nextDouble() * 2.0 - 1.0) * half;
+                if (i + 1 == count) break;
+
+                // пара наблюдатель — цель на расстоянии 40..120 блоков, внутри порогов боссбара
+                double angle = random.nextDouble() * Math.PI * 2.0;
+                double distance = 40.0 + random.nextDouble() * 80.0;
+                xs[i + 1] = xs[i] + Math.cos(angle) * distance;
+                zs[i + 1] = zs[i] + Math.sin(angle) * distance;
+            }
+        }
+    },
+
+    SPREAD {
+        @Override
+        void place(Random random, int count, double[] xs, double[] zs) {
+            for (int i = 0; i < count; i++) {
+                xs[i] = (random.nextDouble() * 2.0 - 1.0) * 15000.0;
+                zs[i] = (random.nextDouble() * 2.0 - 1.0) * 15000.0;
+            }
+        }
+    };
+
+    abstract void place(Random random, int count, double[] xs, double[] zs);
+}
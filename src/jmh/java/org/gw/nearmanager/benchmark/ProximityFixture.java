@@ -0,0 +1,84 @@
+package org.gw.nearmanager.benchmark;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.gw.nearmanager.NearManager;
+import org.gw.nearmanager.managers.BossBarManager;
+import org.gw.nearmanager.managers.ConfigManager;
+import org.gw.nearmanager.managers.EligibilityManager;
+import org.gw.nearmanager.managers.MetricsManager;
+import org.gw.nearmanager.managers.NearPlayerManager;
+import org.gw.nearmanager.managers.PositionSnapshotManager;
+import org.gw.nearmanager.managers.RadiusManager;
+import org.gw.nearmanager.managers.SpatialGridManager;
+
+import java.util.Random;
+import java.util.UUID;
+
+public final class ProximityFixture {
+
+    private static final long SEED = 0x5EED_0F_4EA2L;
+    private static final double GROUND_Y = 64.0;
+
+    public final StandInServer server;
+    public final World world;
+    public final Player[] players;
+    public final NearManager plugin;
+    public final ConfigManager configManager;
+    public final MetricsManager metricsManager;
+    public final RadiusManager radiusManager;
+    public final SpatialGridManager spatialGridManager;
+    public final EligibilityManager eligibilityManager;
+    public final PositionSnapshotManager positionSnapshotManager;
+    public final NearPlayerManager nearPlayerManager;
+    public final BossBarManager bossBarManager;
+
+    public ProximityFixture(int count, PlayerLayout layout) {
+        server = StandInServer.get();
+        server.reset();
+        world = server.createWorld("world");
+
+        double[] xs = new double[count];
+        double[] zs = new double[count];
+        Random random = new Random(SEED);
+        layout.place(random, count, xs, zs);
+
+        players = new Player[count];
+        for (int i = 0; i < count; i++) {
+            Location location = new Location(world, xs[i], GROUND_Y, zs[i], random.nextFloat() * 360.0f - 180.0f, 0.0f);
+            players[i] = server.join("Player" + i, new UUID(0L, i + 1L), location);
+        }
+
+        plugin = server.createPlugin();
+        configManager = new ConfigManager(plugin);
+        metricsManager = new MetricsManager();
+        radiusManager = new RadiusManager(plugin, configManager, metricsManager);
+        spatialGridManager = new SpatialGridManager();
+        eligibilityManager = new EligibilityManager(plugin, configManager, spatialGridManager, radiusManager);
+        positionSnapshotManager = new PositionSnapshotManager(plugin, configManager, spatialGridManager);
+        nearPlayerManager = new NearPlayerManager(plugin, configManager, radiusManager, spatialGridManager,
+                eligibilityManager, positionSnapshotManager, metricsManager);
+        eligibilityManager.setChangeListener(nearPlayerManager::handleVisibilityChange);
+        bossBarManager = new BossBarManager(plugin, configManager, spatialGridManager, positionSnapshotManager,
+                metricsManager);
+    }
+
+    public int radius(Player viewer) {
+        return radiusManager.getRadius(viewer);
+    }
+
+    public void warmCache() {
+        for (Player viewer : players) {
+            nearPlayerManager.getNearbyPlayers(viewer, radius(viewer));
+        }
+    }
+
+    public void close() {
+        bossBarManager.shutdown();
+        positionSnapshotManager.shutdown();
+        eligibilityManager.shutdown();
+        radiusManager.shutdown();
+        server.reset();
+    }
+}
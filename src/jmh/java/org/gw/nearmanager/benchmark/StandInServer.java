@@ -0,0 +1,256 @@
+package org.gw.nearmanager.benchmark;
+
+import org.bukkit.Bukkit;
+import org.bukkit.GameMode;
+import org.bukkit.Location;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.command.ConsoleCommandSender;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.PluginDescriptionFile;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.plugin.ServicesManager;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.bukkit.plugin.java.JavaPluginLoader;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+import org.gw.nearmanager.NearManager;
+import sun.reflect.ReflectionFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Минимальная замена сервера Bukkit для бенчмарков: игроки, миры и планировщик живут в памяти процесса.
+ * Разовые задачи выполняются сразу, периодические не запускаются вовсе — бенчмарк сам дергает нужные методы.
+ * Все сообщения, тайтлы, звуки и боссбары игрокам не отправляются, а запоминаются в {@link #takeOutput()}.
+ */
+public final class StandInServer {
+
+    private static final Object[] NO_ARGS = new Object[0];
+    private static StandInServer instance;
+
+    private final Logger logger = Logger.getLogger("StandInServer");
+    private final Map<UUID, Player> online = new ConcurrentHashMap<>();
+    private final Map<UUID, PlayerHandler> handlers = new ConcurrentHashMap<>();
+    private final Map<UUID, World> worlds = new ConcurrentHashMap<>();
+    private final Server server;
+
+    private Object output;
+
+    private StandInServer() {
+        logger.setLevel(Level.WARNING);
+        BukkitTask task = proxy(BukkitTask.class, (p, method, args) -> defaultValue(method.getReturnType()));
+        BukkitScheduler scheduler = proxy(BukkitScheduler.class, (p, method, args) -> {
+            String name = method.getName();
+            if ((name.equals("runTask") || name.equals("runTaskAsynchronously"))
+                    && args.length == 2 && args[1] instanceof Runnable runnable) {
+                runnable.run();
+            }
+            return method.getReturnType() == BukkitTask.class ? task : defaultValue(method.getReturnType());
+        });
+        ServicesManager services = proxy(ServicesManager.class, (p, method, args) -> defaultValue(method.getReturnType()));
+        PluginManager plugins = proxy(PluginManager.class, (p, method, args) -> defaultValue(method.getReturnType()));
+        ConsoleCommandSender console = proxy(ConsoleCommandSender.class, (p, method, args) -> switch (method.getName()) {
+            case "getName" -> "CONSOLE";
+            case "isOp", "hasPermission" -> true;
+            default -> defaultValue(method.getReturnType());
+        });
+
+        server = proxy(Server.class, (p, method, args) -> switch (method.getName()) {
+            case "getOnlinePlayers" -> Collections.unmodifiableCollection(online.values());
+            case "getPlayer", "getPlayerExact" -> args[0] instanceof UUID id ? online.get(id) : findPlayer((String) args[0]);
+            case "getWorld" -> args[0] instanceof UUID id ? worlds.get(id) : findWorld((String) args[0]);
+            case "getWorlds" -> new ArrayList<>(worlds.values());
+            case "getScheduler" -> scheduler;
+            case "getServicesManager" -> services;
+            case "getPluginManager" -> plugins;
+            case "getConsoleSender" -> console;
+            case "getLogger" -> logger;
+            case "getName" -> "StandInServer";
+            case "getVersion", "getBukkitVersion" -> "benchmark";
+            case "isPrimaryThread" -> true;
+            default -> defaultValue(method.getReturnType());
+        });
+    }
+
+    public static synchronized StandInServer get() {
+        if (instance == null) {
+            instance = new StandInServer();
+            Bukkit.setServer(instance.server);
+        }
+        return instance;
+    }
+
+    public World createWorld(String name) {
+        UUID id = UUID.nameUUIDFromBytes(name.getBytes());
+        World world = proxy(World.class, (p, method, args) -> switch (method.getName()) {
+            case "getUID" -> id;
+            case "getName" -> name;
+            default -> defaultValue(method.getReturnType());
+        });
+        worlds.put(id, world);
+        return world;
+    }
+
+    public Player join(String name, UUID uuid, Location location) {
+        PlayerHandler handler = new PlayerHandler(this, uuid, name, location.clone());
+        Player player = proxy(Player.class, handler);
+        online.put(uuid, player);
+        handlers.put(uuid, handler);
+        return player;
+    }
+
+    public void reset() {
+        online.clear();
+        handlers.clear();
+        worlds.clear();
+    }
+
+    /**
+     * Вне PluginClassLoader у JavaPlugin работает только защищённый конструктор инициализации, а NearManager
+     * final и своего такого не имеет: экземпляр создаётся в обход конструкторов NearManager с вызовом
+     * конструктора JavaPlugin, как при десериализации.
+     */
+    public NearManager createPlugin() {
+        try {
+            File dataFolder = Files.createTempDirectory("nearmanager-bench").toFile();
+            dataFolder.deleteOnExit();
+            PluginDescriptionFile description = new PluginDescriptionFile("NearManager", "benchmark",
+                    NearManager.class.getName());
+
+            Constructor<JavaPlugin> init = JavaPlugin.class.getDeclaredConstructor(
+                    JavaPluginLoader.class, PluginDescriptionFile.class, File.class, File.class);
+            Constructor<?> constructor = ReflectionFactory.getReflectionFactory()
+                    .newConstructorForSerialization(NearManager.class, init);
+            return NearManager.class.cast(constructor.newInstance(
+                    new JavaPluginLoader(server), description, dataFolder, new File(dataFolder, "NearManager.jar")));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Не удалось создать экземпляр плагина", e);
+        }
+    }
+
+    public void grantAll(Player player) {
+        PlayerHandler handler = handlers.get(player.getUniqueId());
+        if (handler != null) handler.op = true;
+    }
+
+    public Object takeOutput() {
+        Object last = output;
+        output = null;
+        return last;
+    }
+
+    public void moveTo(Player player, Location location) {
+        PlayerHandler handler = handlers.get(player.getUniqueId());
+        if (handler != null) handler.location = location.clone();
+    }
+
+    private Player findPlayer(String name) {
+        for (Player player : online.values()) {
+            if (player.getName().equalsIgnoreCase(name)) return player;
+        }
+        return null;
+    }
+
+    private World findWorld(String name) {
+        for (World world : worlds.values()) {
+            if (world.getName().equals(name)) return world;
+        }
+        return null;
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(StandInServer.class.getClassLoader(), new Class<?>[]{type},
+                (p, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) return objectMethod(p, method, args);
+                    return handler.invoke(p, method, args != null ? args : NO_ARGS);
+                }));
+    }
+
+    private static Object objectMethod(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "equals" -> proxy == args[0];
+            case "hashCode" -> System.identityHashCode(proxy);
+            default -> proxy.getClass().getInterfaces()[0].getSimpleName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+        };
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) return false;
+        if (type == int.class) return 0;
+        if (type == long.class) return 0L;
+        if (type == double.class) return 0.0;
+        if (type == float.class) return 0.0f;
+        if (type == short.class) return (short) 0;
+        if (type == byte.class) return (byte) 0;
+        if (type == char.class) return '\0';
+        if (type == Set.class) return Set.of();
+        if (type == List.class || type == Collection.class) return List.of();
+        return null;
+    }
+
+    private static final class PlayerHandler implements InvocationHandler {
+
+        private final StandInServer server;
+        private final UUID uuid;
+        private final String name;
+        private volatile Location location;
+        private volatile boolean op;
+
+        private PlayerHandler(StandInServer server, UUID uuid, String name, Location location) {
+            this.server = server;
+            this.uuid = uuid;
+            this.name = name;
+            this.location = location;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            return switch (method.getName()) {
+                case "getUniqueId" -> uuid;
+                case "getName", "getDisplayName" -> name;
+                case "getLocation" -> args.length == 0 ? location.clone() : copyLocation((Location) args[0]);
+                case "getWorld" -> location.getWorld();
+                case "getGameMode" -> GameMode.SURVIVAL;
+                case "isOnline", "isValid" -> true;
+                case "isOp", "hasPermission", "isPermissionSet" -> op;
+                case "sendMessage", "sendActionBar", "showTitle", "playSound", "showBossBar", "hideBossBar" -> {
+                    server.output = args;
+                    yield null;
+                }
+                default -> defaultValue(method.getReturnType());
+            };
+        }
+
+        private Location copyLocation(Location target) {
+            if (target == null) return null;
+            Location current = location;
+            target.setWorld(current.getWorld());
+            target.setX(current.getX());
+            target.setY(current.getY());
+            target.setZ(current.getZ());
+            target.setYaw(current.getYaw());
+            target.setPitch(current.getPitch());
+            return target;
+        }
+    }
+}
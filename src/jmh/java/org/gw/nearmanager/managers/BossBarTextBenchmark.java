@@ -0,0 +1,83 @@
+package org.gw.nearmanager.managers;
+
+import net.kyori.adventure.text.Component;
+import org.gw.nearmanager.benchmark.PlayerLayout;
+import org.gw.nearmanager.benchmark.ProximityFixture;
+import org.gw.nearmanager.utils.Direction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BossBarTextBenchmark {
+
+    private static final int SAMPLES = 1024;
+
+    private ProximityFixture fixture;
+    private String configuredText;
+    private String parsedText;
+    private String targetName;
+    private Component targetFragment;
+    private int[] distances;
+    private Direction[] directions;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new ProximityFixture(2, PlayerLayout.CLUSTERED);
+        configuredText = fixture.configManager.getBossBarText();
+        parsedText = configuredText + " &7";
+        targetName = fixture.players[1].getName();
+        targetFragment = Component.text(targetName);
+
+        int min = fixture.configManager.getBossBarMinDistance();
+        int max = fixture.configManager.getBossBarMaxDistance();
+        distances = new int[SAMPLES];
+        directions = new Direction[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            distances[i] = min + i % Math.max(1, max - min);
+            directions[i] = Direction.byOrdinal(i % Direction.count());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public Component configuredText() {
+        int i = nextSample();
+        return fixture.bossBarManager.buildBossBarText(configuredText, targetName, targetFragment,
+                distances[i], directions[i]);
+    }
+
+    @Benchmark
+    public Component placeholderText() {
+        int i = nextSample();
+        return fixture.bossBarManager.buildBossBarText(parsedText, targetName, targetFragment,
+                distances[i], directions[i]);
+    }
+
+    private int nextSample() {
+        int i = next;
+        next = (i + 1) & (SAMPLES - 1);
+        return i;
+    }
+}
@@ -0,0 +1,77 @@
+package org.gw.nearmanager.managers;
+
+import org.bukkit.entity.Player;
+import org.gw.nearmanager.benchmark.PlayerLayout;
+import org.gw.nearmanager.benchmark.ProximityFixture;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Один тик боссбаров (шард, публикация в SnapshotRing) и один проход обработчика по прогретым полосам
+ * неподвижных пар игроков. Фоновый поток остановлен, обе стадии выполняются в потоке бенчмарка.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BossBarTickBenchmark {
+
+    @Param({"100", "1000"})
+    private int bars;
+
+    private ProximityFixture fixture;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        fixture = new ProximityFixture(bars * 2, PlayerLayout.PAIRED);
+        BossBarManager manager = fixture.bossBarManager;
+        manager.stopWorker();
+
+        // -notime: полосы не должны сниматься по таймауту посреди замера
+        for (int i = 0; i + 1 < fixture.players.length; i += 2) {
+            Player viewer = fixture.players[i];
+            Player target = fixture.players[i + 1];
+            manager.activateBossBar(viewer, target, false, true);
+            if (!manager.hasActiveBossBar(viewer)) {
+                throw new IllegalStateException("Боссбар не активирован для " + viewer.getName());
+            }
+        }
+
+        int warmTicks = fixture.configManager.getBossBarMaxInterval() * 4;
+        for (int i = 0; i < warmTicks; i++) {
+            tick();
+        }
+        fixture.metricsManager.reset();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        long processed = fixture.metricsManager.count(MetricsManager.Counter.BOSSBAR_UPDATED)
+                + fixture.metricsManager.count(MetricsManager.Counter.BOSSBAR_SKIPPED);
+        long ticks = fixture.metricsManager.snapshot(MetricsManager.Timer.BOSSBAR_TICK).count();
+        System.out.printf("%nбоссбаров обработано: %d за %d тиков%n", processed, ticks);
+        fixture.close();
+    }
+
+    @Benchmark
+    public boolean tick() {
+        BossBarManager manager = fixture.bossBarManager;
+        manager.tick();
+        return manager.drainRing();
+    }
+}
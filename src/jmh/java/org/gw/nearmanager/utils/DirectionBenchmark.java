@@ -0,0 +1,75 @@
+package org.gw.nearmanager.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнивает классификацию направления через базис yaw с прежней формулой через atan2.
+ * Совпадение с исходной формулой проверяет DirectionUtilsTest.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DirectionBenchmark {
+
+    private static final int TARGETS = 64;
+
+    private final double[] xs = new double[TARGETS];
+    private final double[] zs = new double[TARGETS];
+    private final Direction[] out = new Direction[TARGETS];
+    private double viewerX;
+    private double viewerZ;
+    private float viewerYaw;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(0x0C7A_17L);
+        viewerX = random.nextDouble() * 2000.0 - 1000.0;
+        viewerZ = random.nextDouble() * 2000.0 - 1000.0;
+        viewerYaw = random.nextFloat() * 360.0f - 180.0f;
+        for (int i = 0; i < TARGETS; i++) {
+            xs[i] = viewerX + random.nextDouble() * 200.0 - 100.0;
+            zs[i] = viewerZ + random.nextDouble() * 200.0 - 100.0;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TARGETS)
+    public void angle(Blackhole blackhole) {
+        for (int i = 0; i < TARGETS; i++) {
+            blackhole.consume(DirectionUtils.classifyByAngle(viewerYaw, xs[i] - viewerX, zs[i] - viewerZ));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TARGETS)
+    public void octant(Blackhole blackhole) {
+        for (int i = 0; i < TARGETS; i++) {
+            blackhole.consume(DirectionUtils.getDirection(viewerX, viewerZ, viewerYaw, xs[i], zs[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TARGETS)
+    public Direction[] batch() {
+        DirectionUtils.getDirections(viewerX, viewerZ, viewerYaw, xs, zs, TARGETS, out);
+        return out;
+    }
+}
@@ -10,18 +10,31 @@ import org.gw.nearmanager.listeners.PlayerCacheInvalidationListener;
 import org.gw.nearmanager.listeners.PlayerQuitListener;
 import org.gw.nearmanager.managers.BossBarManager;
 import org.gw.nearmanager.managers.ConfigManager;
+import org.gw.nearmanager.managers.EligibilityManager;
+import org.gw.nearmanager.managers.MetricsManager;
 import org.gw.nearmanager.managers.NearDisplayManager;
 import org.gw.nearmanager.managers.NearPlayerManager;
+import org.gw.nearmanager.managers.PositionSnapshotManager;
 import org.gw.nearmanager.managers.RadiusManager;
+import org.gw.nearmanager.managers.SpatialGridManager;
+import org.gw.nearmanager.managers.WorkerPoolManager;
 import org.gw.nearmanager.utils.BStats;
 import org.gw.nearmanager.utils.HexColors;
 import org.gw.nearmanager.utils.UpdateChecker;
 
 public final class NearManager extends JavaPlugin {
 
+    private static final String LOG_PREFIX = HexColors.translate("&#FFFF00◆ NearManager &f| ");
+    private static final String ERROR_PREFIX = HexColors.translate("&#FB8808◆ NearManager &f| ");
+
     @Getter
     private ConfigManager configManager;
+    private MetricsManager metricsManager;
     private RadiusManager radiusManager;
+    private SpatialGridManager spatialGridManager;
+    private EligibilityManager eligibilityManager;
+    private PositionSnapshotManager positionSnapshotManager;
+    private WorkerPoolManager workerPoolManager;
     private NearPlayerManager nearPlayerManager;
     private BossBarManager bossBarManager;
     private UpdateChecker updateChecker;
@@ -48,18 +61,29 @@ public final class NearManager extends JavaPlugin {
         configManager = new ConfigManager(this);
 
         console("&#00FF5A◆ NearManager &f| Инициализация &#00FF5Aменеджеров...");
-        radiusManager = new RadiusManager(configManager);
-        nearPlayerManager = new NearPlayerManager(configManager, radiusManager);
-        bossBarManager = new BossBarManager(this, configManager);
+        metricsManager = new MetricsManager();
+        radiusManager = new RadiusManager(this, configManager, metricsManager);
+        spatialGridManager = new SpatialGridManager();
+        eligibilityManager = new EligibilityManager(this, configManager, spatialGridManager, radiusManager);
+        positionSnapshotManager = new PositionSnapshotManager(this, configManager, spatialGridManager);
+        nearPlayerManager = new NearPlayerManager(this, configManager, radiusManager, spatialGridManager,
+                eligibilityManager, positionSnapshotManager, metricsManager);
+        eligibilityManager.setChangeListener(nearPlayerManager::handleVisibilityChange);
+        bossBarManager = new BossBarManager(this, configManager, spatialGridManager, positionSnapshotManager, metricsManager);
+        workerPoolManager = new WorkerPoolManager(this, configManager);
 
         console("&#00FF5A◆ NearManager &f| Регистрация &#00FF5Aсобытий &fи &#00FF5Aкоманд...");
 
         getServer().getPluginManager().registerEvents(new PlayerQuitListener(nearPlayerManager, bossBarManager, radiusManager), this);
-        getServer().getPluginManager().registerEvents(new PlayerCacheInvalidationListener(nearPlayerManager, bossBarManager), this);
+        getServer().getPluginManager().registerEvents(new PlayerCacheInvalidationListener(nearPlayerManager, bossBarManager, spatialGridManager, configManager), this);
         getServer().getPluginManager().registerEvents(new CommandPermissionListener(configManager), this);
+        getServer().getPluginManager().registerEvents(eligibilityManager, this);
+        getServer().getPluginManager().registerEvents(radiusManager, this);
 
-        NearDisplayManager nearDisplayManager = new NearDisplayManager(configManager);
-        commandsHandler = new CommandsHandler(this, configManager, radiusManager, nearPlayerManager, bossBarManager, nearDisplayManager);
+        NearDisplayManager nearDisplayManager = new NearDisplayManager(configManager, spatialGridManager,
+                positionSnapshotManager, metricsManager);
+        commandsHandler = new CommandsHandler(this, configManager, radiusManager, nearPlayerManager, bossBarManager,
+                nearDisplayManager, workerPoolManager, metricsManager);
 
         CommandsTabCompleter tabCompleter = new CommandsTabCompleter();
         getCommand("near").setExecutor(commandsHandler);
@@ -83,6 +107,7 @@ public final class NearManager extends JavaPlugin {
         radiusManager.clearAllCache();
         nearPlayerManager.invalidateAllCache();
         nearPlayerManager.clearCooldowns();
+        eligibilityManager.refreshAll();
 
         return true;
     }
@@ -95,6 +120,18 @@ public final class NearManager extends JavaPlugin {
             bossBarManager.restart();
         }
 
+        if (eligibilityManager != null) {
+            eligibilityManager.restart();
+        }
+
+        if (positionSnapshotManager != null) {
+            positionSnapshotManager.restart();
+        }
+
+        if (workerPoolManager != null) {
+            workerPoolManager.restart();
+        }
+
         if (updateChecker != null) {
             updateChecker.reload();
         }
@@ -128,6 +165,22 @@ public final class NearManager extends JavaPlugin {
             bossBarManager.shutdown();
         }
 
+        if (radiusManager != null) {
+            radiusManager.shutdown();
+        }
+
+        if (eligibilityManager != null) {
+            eligibilityManager.shutdown();
+        }
+
+        if (positionSnapshotManager != null) {
+            positionSnapshotManager.shutdown();
+        }
+
+        if (workerPoolManager != null) {
+            workerPoolManager.shutdown();
+        }
+
         long unloadTime = System.currentTimeMillis() - startTime;
 
         console("&#ffff00 ");
@@ -150,11 +203,11 @@ public final class NearManager extends JavaPlugin {
 
     public void log(String message) {
         if (configManager != null && configManager.isConsoleLogsEnabled()) {
-            Bukkit.getConsoleSender().sendMessage(HexColors.translate("&#FFFF00◆ NearManager &f| " + message));
+            Bukkit.getConsoleSender().sendMessage(LOG_PREFIX + HexColors.translate(message));
         }
     }
 
     public void error(String message) {
-        Bukkit.getConsoleSender().sendMessage(HexColors.translate("&#FB8808◆ NearManager &f| " + message));
+        Bukkit.getConsoleSender().sendMessage(ERROR_PREFIX + HexColors.translate(message));
     }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package org.gw.nearmanager.actions;
+
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+
+import java.util.Map;
+
+public record ActionContext(CommandSender sender, Player player, Map<String, String> placeholders, Runnable nearListInjector) {
+
+    public static ActionContext of(CommandSender sender, Map<String, String> placeholders, Runnable nearListInjector) {
+        Player player = sender instanceof Player p ? p : null;
+        return new ActionContext(sender, player, placeholders != null ? placeholders : Map.of(), nearListInjector);
+    }
+
+    public String placeholder(String key) {
+        String value = placeholders.get(key);
+        if (value == null && sender != null && "player".equals(key)) return sender.getName();
+        return value;
+    }
+}
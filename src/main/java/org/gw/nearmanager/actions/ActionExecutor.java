@@ -0,0 +1,8 @@
+package org.gw.nearmanager.actions;
+
+public interface ActionExecutor {
+
+    String type();
+
+    void execute(ActionContext context);
+}
@@ -0,0 +1,66 @@
+package org.gw.nearmanager.actions;
+
+import org.gw.nearmanager.utils.PlaceholderAPIHook;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+final class ActionText {
+
+    private static final Pattern SLOT_PATTERN = Pattern.compile("\\{([A-Za-z0-9_-]+)}");
+
+    private final String source;
+    private final String[] literals;
+    private final String[] slots;
+    private final boolean papi;
+
+    private ActionText(String source, String[] literals, String[] slots) {
+        this.source = source;
+        this.literals = literals;
+        this.slots = slots;
+        this.papi = source.indexOf('%') >= 0;
+    }
+
+    static ActionText compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+
+        Matcher matcher = SLOT_PATTERN.matcher(source);
+        int start = 0;
+        while (matcher.find()) {
+            literals.add(source.substring(start, matcher.start()));
+            slots.add(matcher.group(1));
+            start = matcher.end();
+        }
+        literals.add(source.substring(start));
+        return new ActionText(source, literals.toArray(new String[0]), slots.toArray(new String[0]));
+    }
+
+    boolean isStatic() {
+        return slots.length == 0 && !papi;
+    }
+
+    boolean needsPlaceholderApi(ActionContext context) {
+        return papi && context.player() != null && PlaceholderAPIHook.isEnabled();
+    }
+
+    String fill(ActionContext context) {
+        String text = source;
+        if (slots.length > 0) {
+            StringBuilder builder = new StringBuilder(source.length() + 16 * slots.length);
+            for (int i = 0; i < slots.length; i++) {
+                String value = context.placeholder(slots[i]);
+                builder.append(literals[i]);
+                if (value != null) {
+                    builder.append(value);
+                } else {
+                    builder.append('{').append(slots[i]).append('}');
+                }
+            }
+            text = builder.append(literals[slots.length]).toString();
+        }
+        return needsPlaceholderApi(context) ? PlaceholderAPIHook.parse(context.player(), text) : text;
+    }
+}
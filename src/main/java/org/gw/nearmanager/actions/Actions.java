@@ -0,0 +1,238 @@
+package org.gw.nearmanager.actions;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.title.Title;
+import org.bukkit.Bukkit;
+import org.bukkit.Sound;
+import org.bukkit.entity.Player;
+import org.gw.nearmanager.NearManager;
+import org.gw.nearmanager.utils.ComponentTemplate;
+import org.gw.nearmanager.utils.HexColors;
+
+import java.time.Duration;
+
+public final class Actions {
+
+    private static final String NEAR_PLAYERS = "{near-players}";
+
+    private Actions() {}
+
+    public static ActionExecutor compile(NearManager plugin, String line) {
+        if (line == null || line.isEmpty() || !line.startsWith("[")) return null;
+
+        int end = line.indexOf("]");
+        if (end == -1) return null;
+
+        String type = line.substring(1, end).toLowerCase().trim();
+        String content = line.substring(end + 1).trim();
+
+        ActionExecutor executor = switch (type) {
+            case "message" -> new SendMessage(ActionText.compile(content), ComponentTemplate.compile(content));
+            case "actionbar" -> new SendActionBar(ActionText.compile(content), ComponentTemplate.compile(content));
+            case "broadcast" -> new Broadcast(ActionText.compile(content), ComponentTemplate.compile(content));
+            case "message-console" -> new ConsoleMessage(plugin, ActionText.compile(content));
+            case "sound" -> compileSound(plugin, content);
+            case "title", "subtitle" -> compileTitle(plugin, type, content);
+            case "console-command" -> new RunCommand(type, ActionText.compile(content), true);
+            case "player-command" -> new RunCommand(type, ActionText.compile(content), false);
+            default -> {
+                plugin.error("Неизвестный тип действия: [" + type + "]");
+                yield null;
+            }
+        };
+
+        return content.contains(NEAR_PLAYERS) ? new NearList(type, executor) : executor;
+    }
+
+    private static ActionExecutor compileSound(NearManager plugin, String content) {
+        ActionText text = ActionText.compile(content);
+        if (!text.isStatic()) return new DynamicSound(plugin, text);
+
+        PlaySound sound = parseSound(content);
+        if (sound == null) plugin.error("Ошибка воспроизведения звука: " + content);
+        return sound;
+    }
+
+    private static PlaySound parseSound(String data) {
+        try {
+            String[] parts = data.split(" ");
+            Sound sound = Sound.valueOf(parts[0].toUpperCase());
+            float volume = parts.length > 1 ? Float.parseFloat(parts[1]) : 1.0f;
+            float pitch = parts.length > 2 ? Float.parseFloat(parts[2]) : 1.0f;
+            return new PlaySound(sound, volume, pitch);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static ActionExecutor compileTitle(NearManager plugin, String type, String content) {
+        String[] parts = content.split(";", 4);
+        // появление и статика из плейсхолдеров известны только при вызове: разбираем строку целиком каждый раз
+        for (int i = 2; i < parts.length; i++) {
+            if (!ActionText.compile(parts[i]).isStatic()) return new DynamicTitle(plugin, type, ActionText.compile(content));
+        }
+
+        try {
+            String main = parts.length > 0 ? parts[0] : "";
+            String sub = parts.length > 1 ? parts[1] : "";
+            return new ShowTitle(type, ActionText.compile(main), ComponentTemplate.compile(main),
+                    ActionText.compile(sub), ComponentTemplate.compile(sub), parseTimes(parts));
+        } catch (NumberFormatException e) {
+            plugin.error("Ошибка показа тайтла: " + content);
+            return null;
+        }
+    }
+
+    private static Title.Times parseTimes(String[] parts) {
+        int fadeIn = parts.length > 2 ? Integer.parseInt(parts[2].trim()) : 10;
+        int stay = parts.length > 3 ? Integer.parseInt(parts[3].trim()) : 70;
+        return Title.Times.times(
+                Duration.ofMillis(fadeIn * 50L),
+                Duration.ofMillis(stay * 50L),
+                Duration.ofMillis(500)
+        );
+    }
+
+    private static Component render(ActionText text, ComponentTemplate template, ActionContext context) {
+        if (text.needsPlaceholderApi(context)) return HexColors.translateToComponent(text.fill(context));
+        return template.render(context::placeholder);
+    }
+
+    private record SendMessage(ActionText text, ComponentTemplate template) implements ActionExecutor {
+        @Override
+        public String type() {
+            return "message";
+        }
+
+        @Override
+        public void execute(ActionContext context) {
+            if (context.sender() != null) context.sender().sendMessage(render(text, template, context));
+        }
+    }
+
+    private record SendActionBar(ActionText text, ComponentTemplate template) implements ActionExecutor {
+        @Override
+        public String type() {
+            return "actionbar";
+        }
+
+        @Override
+        public void execute(ActionContext context) {
+            if (context.player() != null) context.player().sendActionBar(render(text, template, context));
+        }
+    }
+
+    private record Broadcast(ActionText text, ComponentTemplate template) implements ActionExecutor {
+        @Override
+        public String type() {
+            return "broadcast";
+        }
+
+        @Override
+        public void execute(ActionContext context) {
+            Bukkit.broadcastMessage(HexColors.serialize(render(text, template, context)));
+        }
+    }
+
+    private record ConsoleMessage(NearManager plugin, ActionText text) implements ActionExecutor {
+        @Override
+        public String type() {
+            return "message-console";
+        }
+
+        @Override
+        public void execute(ActionContext context) {
+            plugin.console(text.fill(context));
+        }
+    }
+
+    private record PlaySound(Sound sound, float volume, float pitch) implements ActionExecutor {
+        @Override
+        public String type() {
+            return "sound";
+        }
+
+        @Override
+        public void execute(ActionContext context) {
+            Player player = context.player();
+            if (player != null) player.playSound(player.getLocation(), sound, volume, pitch);
+        }
+    }
+
+    private record DynamicSound(NearManager plugin, ActionText text) implements ActionExecutor {
+        @Override
+        public String type() {
+            return "sound";
+        }
+
+        @Override
+        public void execute(ActionContext context) {
+            if (context.player() == null) return;
+
+            String data = text.fill(context);
+            PlaySound sound = parseSound(data);
+            if (sound != null) {
+                sound.execute(context);
+            } else {
+                plugin.error("Ошибка воспроизведения звука: " + data);
+            }
+        }
+    }
+
+    private record ShowTitle(String type, ActionText main, ComponentTemplate mainTemplate,
+                             ActionText sub, ComponentTemplate subTemplate, Title.Times times) implements ActionExecutor {
+        @Override
+        public void execute(ActionContext context) {
+            Player player = context.player();
+            if (player == null) return;
+
+            player.showTitle(Title.title(
+                    render(main, mainTemplate, context),
+                    render(sub, subTemplate, context),
+                    times
+            ));
+        }
+    }
+
+    private record DynamicTitle(NearManager plugin, String type, ActionText text) implements ActionExecutor {
+        @Override
+        public void execute(ActionContext context) {
+            Player player = context.player();
+            if (player == null) return;
+
+            String data = text.fill(context);
+            try {
+                String[] parts = data.split(";", 4);
+                player.showTitle(Title.title(
+                        HexColors.translateToComponent(parts.length > 0 ? parts[0] : ""),
+                        HexColors.translateToComponent(parts.length > 1 ? parts[1] : ""),
+                        parseTimes(parts)
+                ));
+            } catch (NumberFormatException e) {
+                plugin.error("Ошибка показа тайтла: " + data);
+            }
+        }
+    }
+
+    private record RunCommand(String type, ActionText text, boolean console) implements ActionExecutor {
+        @Override
+        public void execute(ActionContext context) {
+            if (console) {
+                Bukkit.dispatchCommand(Bukkit.getConsoleSender(), text.fill(context));
+            } else if (context.player() != null) {
+                context.player().performCommand(text.fill(context));
+            }
+        }
+    }
+
+    private record NearList(String type, ActionExecutor fallback) implements ActionExecutor {
+        @Override
+        public void execute(ActionContext context) {
+            if (context.nearListInjector() != null) {
+                context.nearListInjector().run();
+            } else if (fallback != null) {
+                fallback.execute(context);
+            }
+        }
+    }
+}
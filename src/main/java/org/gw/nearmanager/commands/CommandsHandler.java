@@ -6,9 +6,11 @@ import org.bukkit.command.CommandSender;
 import org.gw.nearmanager.NearManager;
 import org.gw.nearmanager.managers.BossBarManager;
 import org.gw.nearmanager.managers.ConfigManager;
+import org.gw.nearmanager.managers.MetricsManager;
 import org.gw.nearmanager.managers.NearDisplayManager;
 import org.gw.nearmanager.managers.NearPlayerManager;
 import org.gw.nearmanager.managers.RadiusManager;
+import org.gw.nearmanager.managers.WorkerPoolManager;
 
 public final class CommandsHandler implements CommandExecutor {
 
@@ -17,9 +19,11 @@ public final class CommandsHandler implements CommandExecutor {
 
     public CommandsHandler(NearManager plugin, ConfigManager configManager, RadiusManager radiusManager,
                            NearPlayerManager nearPlayerManager, BossBarManager bossBarManager,
-                           NearDisplayManager nearDisplayManager) {
-        this.nearCommand = new NearCommand(plugin, configManager, radiusManager, nearPlayerManager, bossBarManager, nearDisplayManager);
-        this.nmCommand = new NmCommand(plugin, configManager, bossBarManager, radiusManager);
+                           NearDisplayManager nearDisplayManager, WorkerPoolManager workerPoolManager,
+                           MetricsManager metricsManager) {
+        this.nearCommand = new NearCommand(plugin, configManager, radiusManager, nearPlayerManager, bossBarManager,
+                nearDisplayManager, workerPoolManager, metricsManager);
+        this.nmCommand = new NmCommand(plugin, configManager, bossBarManager, radiusManager, metricsManager);
     }
 
     @Override
@@ -12,7 +12,8 @@ import java.util.List;
 
 public final class CommandsTabCompleter implements TabCompleter {
 
-    private static final List<String> NM_SUBCOMMANDS = List.of("reload", "bossbar");
+    private static final List<String> NM_SUBCOMMANDS = List.of("reload", "bossbar", "shards", "stats");
+    private static final List<String> STATS_SUBCOMMANDS = List.of("reset");
     private static final List<String> BOSSBAR_SUBCOMMANDS = List.of("on", "off");
     private static final List<String> BOSSBAR_FLAGS = List.of("-nodist");
 
@@ -32,6 +33,8 @@ public final class CommandsTabCompleter implements TabCompleter {
         if (cmdName.equals("nm")) {
             if (args.length == 1) {
                 StringUtil.copyPartialMatches(args[0], NM_SUBCOMMANDS, completions);
+            } else if (args.length == 2 && args[0].equalsIgnoreCase("stats")) {
+                StringUtil.copyPartialMatches(args[1], STATS_SUBCOMMANDS, completions);
             } else if (args.length == 2 && args[0].equalsIgnoreCase("bossbar")) {
                 List<String> playerNames = new ArrayList<>();
                 for (Player p : Bukkit.getOnlinePlayers()) {
@@ -1,5 +1,6 @@
 package org.gw.nearmanager.commands;
 
+import net.kyori.adventure.text.Component;
 import org.bukkit.Bukkit;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandExecutor;
@@ -8,11 +9,12 @@ import org.bukkit.entity.Player;
 import org.gw.nearmanager.NearManager;
 import org.gw.nearmanager.managers.BossBarManager;
 import org.gw.nearmanager.managers.ConfigManager;
+import org.gw.nearmanager.managers.MetricsManager;
 import org.gw.nearmanager.managers.NearDisplayManager;
 import org.gw.nearmanager.managers.NearPlayerManager;
 import org.gw.nearmanager.managers.RadiusManager;
+import org.gw.nearmanager.managers.WorkerPoolManager;
 
-import java.util.List;
 import java.util.Map;
 
 public final class NearCommand implements CommandExecutor {
@@ -23,16 +25,21 @@ public final class NearCommand implements CommandExecutor {
     private final NearPlayerManager nearPlayerManager;
     private final BossBarManager bossBarManager;
     private final NearDisplayManager nearDisplayManager;
+    private final WorkerPoolManager workerPoolManager;
+    private final MetricsManager metricsManager;
 
     public NearCommand(NearManager plugin, ConfigManager configManager, RadiusManager radiusManager,
                        NearPlayerManager nearPlayerManager, BossBarManager bossBarManager,
-                       NearDisplayManager nearDisplayManager) {
+                       NearDisplayManager nearDisplayManager, WorkerPoolManager workerPoolManager,
+                       MetricsManager metricsManager) {
         this.plugin = plugin;
         this.configManager = configManager;
         this.radiusManager = radiusManager;
         this.nearPlayerManager = nearPlayerManager;
         this.bossBarManager = bossBarManager;
         this.nearDisplayManager = nearDisplayManager;
+        this.workerPoolManager = workerPoolManager;
+        this.metricsManager = metricsManager;
     }
 
     @Override
@@ -45,6 +52,7 @@ public final class NearCommand implements CommandExecutor {
     }
 
     private boolean executeForPlayer(Player player, String[] args) {
+        long start = metricsManager.start();
         if (!player.hasPermission("nearmanager.near")) {
             configManager.executeActions(player, "errors.no-permission", null);
             return true;
@@ -59,18 +67,68 @@ public final class NearCommand implements CommandExecutor {
         int radius = resolveRadius(player, args);
         if (radius == -1) return true;
 
-        List<NearPlayerManager.PlayerDistance> nearby = nearPlayerManager.getNearbyPlayers(player, radius);
+        if (workerPoolManager.isEnabled()) {
+            executeAsync(player, radius, start);
+            return true;
+        }
+
+        NearPlayerManager.NearResult nearby = nearPlayerManager.getNearbyPlayers(player, radius);
 
         if (nearby.isEmpty()) {
             sendEmptyResult(player, radius, false);
-            return true;
+        } else if (!checkTooManyPlayers(nearby, player, false)) {
+            sendResult(player, radius, nearby);
+            nearPlayerManager.setCooldown(player);
         }
+        metricsManager.record(MetricsManager.Timer.NEAR_TOTAL, start);
+        return true;
+    }
 
-        if (checkTooManyPlayers(nearby, player, false)) return true;
+    private void executeAsync(Player player, int radius, long start) {
+        NearPlayerManager.NearRequest request = nearPlayerManager.prepareRequest(player, radius);
+        if (request == null) {
+            sendEmptyResult(player, radius, false);
+            metricsManager.record(MetricsManager.Timer.NEAR_TOTAL, start);
+            return;
+        }
 
-        sendResult(player, radius, nearby);
+        NearDisplayManager.ViewContext context = nearDisplayManager.captureContext(player);
         nearPlayerManager.setCooldown(player);
-        return true;
+
+        workerPoolManager.submit(() -> {
+            try {
+                NearPlayerManager.NearResult nearby = nearPlayerManager.getNearbyPlayers(request);
+                Component list = nearby.isEmpty() || nearby.overflow() ? null : nearDisplayManager.renderNearList(context, nearby);
+
+                Bukkit.getScheduler().runTask(plugin, () -> deliverAsyncResult(player, radius, nearby, list, start));
+            } catch (RuntimeException e) {
+                plugin.error("Ошибка поиска игроков рядом с &#fb8808" + player.getName() + ": " + e.getMessage());
+                Bukkit.getScheduler().runTask(plugin, () -> deliverAsyncFailure(player, start));
+            }
+        });
+    }
+
+    private void deliverAsyncResult(Player player, int radius, NearPlayerManager.NearResult nearby, Component list,
+                                    long start) {
+        if (player.isOnline()) {
+            if (nearby.isEmpty()) {
+                sendEmptyResult(player, radius, false);
+            } else if (!checkTooManyPlayers(nearby, player, false)) {
+                sendResult(player, radius, () -> {
+                    if (list != null) player.sendMessage(list);
+                });
+            }
+        }
+        metricsManager.record(MetricsManager.Timer.NEAR_TOTAL, start);
+    }
+
+    // Ответа не было: снимаем кулдаун, выставленный до отправки задачи, чтобы можно было повторить сразу
+    private void deliverAsyncFailure(Player player, long start) {
+        nearPlayerManager.clearCooldown(player.getUniqueId());
+        if (player.isOnline()) {
+            configManager.executeActions(player, "errors.near-failed", null);
+        }
+        metricsManager.record(MetricsManager.Timer.NEAR_TOTAL, start);
     }
 
     private boolean executeForConsole(CommandSender sender, String[] args) {
@@ -92,7 +150,7 @@ public final class NearCommand implements CommandExecutor {
         }
 
         int radius = radiusManager.getRadius(target);
-        List<NearPlayerManager.PlayerDistance> nearby = nearPlayerManager.getNearbyPlayers(target, radius);
+        NearPlayerManager.NearResult nearby = nearPlayerManager.getNearbyPlayers(target, radius);
 
         if (nearby.isEmpty()) {
             configManager.executeActions(sender, "near.no-players", Map.of(
@@ -102,7 +160,7 @@ public final class NearCommand implements CommandExecutor {
             return true;
         }
 
-        if (configManager.isMaxPlayersEnabled() && nearby.size() > configManager.getMaxPlayers()) {
+        if (nearby.overflow()) {
             configManager.executeActions(sender, "near.too-many-players", null);
             return true;
         }
@@ -111,30 +169,7 @@ public final class NearCommand implements CommandExecutor {
                 "radius", configManager.formatNumber(radius),
                 "blocks-word-format", configManager.getBlockDeclension(radius),
                 "near-players", ""
-        ), () -> {
-            for (int i = 0; i < nearby.size(); i++) {
-                NearPlayerManager.PlayerDistance pd = nearby.get(i);
-                int dist = (int) pd.distance();
-                String direction = configManager.getDirection(org.gw.nearmanager.utils.DirectionUtils.getDirectionKey(
-                        target.getLocation().getX(),
-                        target.getLocation().getZ(),
-                        target.getLocation().getYaw(),
-                        pd.getPlayer().getLocation().getX(),
-                        pd.getPlayer().getLocation().getZ()
-                ));
-                String filled = configManager.getConfig().getString("actions.near.near-players", "")
-                        .replace("{number}", String.valueOf(i + 1))
-                        .replace("{player}", pd.name())
-                        .replace("{blocks}", configManager.formatNumber(dist))
-                        .replace("{direction}", direction)
-                        .replace("{blocks-word-format}", configManager.getBlockDeclension(dist))
-                        .replace("{open-inventory-button}", "")
-                        .replace("{teleport-button}", "")
-                        .replace("{bossbar-button}", "")
-                        .replaceAll(" {2,}", " ");
-                sender.sendMessage(org.gw.nearmanager.utils.HexColors.translateToComponent("  " + filled));
-            }
-        });
+        ), () -> nearDisplayManager.sendNearList(sender, nearDisplayManager.captureConsoleContext(target), nearby));
         return true;
     }
 
@@ -142,7 +177,7 @@ public final class NearCommand implements CommandExecutor {
         int radius = radiusManager.getRadius(player);
 
         if (args.length > 0) {
-            if (!configManager.isCustomRadiusEnabled() || !player.hasPermission("nearmanager.near.custom-radius")) {
+            if (!configManager.isCustomRadiusEnabled() || !radiusManager.hasFlag(player, RadiusManager.CUSTOM_RADIUS)) {
                 configManager.executeActions(player, "near.invalid-radius", null);
                 return -1;
             }
@@ -178,8 +213,8 @@ public final class NearCommand implements CommandExecutor {
         if (!fromConsole) nearPlayerManager.setCooldown(player);
     }
 
-    private boolean checkTooManyPlayers(List<NearPlayerManager.PlayerDistance> nearby, Player player, boolean fromConsole) {
-        if (configManager.isMaxPlayersEnabled() && nearby.size() > configManager.getMaxPlayers()) {
+    private boolean checkTooManyPlayers(NearPlayerManager.NearResult nearby, Player player, boolean fromConsole) {
+        if (nearby.overflow()) {
             configManager.executeActions(player, "near.too-many-players", null);
             if (!fromConsole) nearPlayerManager.setCooldown(player);
             return true;
@@ -187,11 +222,15 @@ public final class NearCommand implements CommandExecutor {
         return false;
     }
 
-    private void sendResult(Player player, int radius, List<NearPlayerManager.PlayerDistance> nearby) {
+    private void sendResult(Player player, int radius, NearPlayerManager.NearResult nearby) {
+        sendResult(player, radius, () -> nearDisplayManager.sendNearList(player, nearby));
+    }
+
+    private void sendResult(Player player, int radius, Runnable nearListInjector) {
         configManager.executeActions(player, "near.near", Map.of(
                 "radius", configManager.formatNumber(radius),
                 "blocks-word-format", configManager.getBlockDeclension(radius),
                 "near-players", ""
-        ), () -> nearDisplayManager.sendNearList(player, nearby));
+        ), nearListInjector);
     }
 }
\ No newline at end of file
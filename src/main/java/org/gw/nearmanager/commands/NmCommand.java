@@ -8,9 +8,13 @@ import org.bukkit.entity.Player;
 import org.gw.nearmanager.NearManager;
 import org.gw.nearmanager.managers.BossBarManager;
 import org.gw.nearmanager.managers.ConfigManager;
+import org.gw.nearmanager.managers.MetricsManager;
 import org.gw.nearmanager.managers.RadiusManager;
+import org.gw.nearmanager.utils.LatencyHistogram;
 
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 public final class NmCommand implements CommandExecutor {
@@ -19,14 +23,16 @@ public final class NmCommand implements CommandExecutor {
     private final ConfigManager configManager;
     private final BossBarManager bossBarManager;
     private final RadiusManager radiusManager;
+    private final MetricsManager metricsManager;
     private final ReloadCommand reloadCommand;
 
     public NmCommand(NearManager plugin, ConfigManager configManager,
-                     BossBarManager bossBarManager, RadiusManager radiusManager) {
+                     BossBarManager bossBarManager, RadiusManager radiusManager, MetricsManager metricsManager) {
         this.plugin = plugin;
         this.configManager = configManager;
         this.bossBarManager = bossBarManager;
         this.radiusManager = radiusManager;
+        this.metricsManager = metricsManager;
         this.reloadCommand = new ReloadCommand(plugin);
     }
 
@@ -34,7 +40,8 @@ public final class NmCommand implements CommandExecutor {
     public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
         if (args.length == 0) {
             if (sender instanceof Player player) {
-                if (!player.hasPermission("nearmanager.reload") && !player.hasPermission("nearmanager.bossbar")) {
+                if (!player.hasPermission("nearmanager.reload") && !player.hasPermission("nearmanager.bossbar")
+                        && !player.hasPermission("nearmanager.shards") && !player.hasPermission("nearmanager.stats")) {
                     configManager.executeActions(player, "errors.no-permission", null);
                     return true;
                 }
@@ -53,6 +60,48 @@ public final class NmCommand implements CommandExecutor {
             return reloadCommand.execute(sender, args);
         }
 
+        if (args[0].equalsIgnoreCase("shards")) {
+            if (!sender.hasPermission("nearmanager.shards")) {
+                configManager.executeActions(sender, "errors.no-permission", null);
+                return true;
+            }
+
+            List<BossBarManager.ShardLoad> loads = bossBarManager.getShardLoads();
+            int total = 0;
+            for (BossBarManager.ShardLoad load : loads) {
+                total += load.bars();
+            }
+
+            configManager.executeActions(sender, "shards.header", Map.of(
+                    "shards", String.valueOf(loads.size()),
+                    "bars", String.valueOf(total)
+            ));
+            for (BossBarManager.ShardLoad load : loads) {
+                configManager.executeActions(sender, "shards.line", Map.of(
+                        "shard", String.valueOf(load.shard() + 1),
+                        "bars", String.valueOf(load.bars()),
+                        "processed", String.valueOf(load.processed())
+                ));
+            }
+            return true;
+        }
+
+        if (args[0].equalsIgnoreCase("stats")) {
+            if (!sender.hasPermission("nearmanager.stats")) {
+                configManager.executeActions(sender, "errors.no-permission", null);
+                return true;
+            }
+
+            if (args.length > 1 && args[1].equalsIgnoreCase("reset")) {
+                metricsManager.reset();
+                configManager.executeActions(sender, "stats.reset", null);
+                return true;
+            }
+
+            sendStats(sender);
+            return true;
+        }
+
         if (args[0].equalsIgnoreCase("bossbar")) {
             boolean isFromButton = false;
             for (String arg : args) {
@@ -164,6 +213,62 @@ public final class NmCommand implements CommandExecutor {
         return true;
     }
 
+    private void sendStats(CommandSender sender) {
+        long minutes = (System.currentTimeMillis() - metricsManager.getSince()) / 60_000L;
+        configManager.executeActions(sender, "stats.header", Map.of("minutes", String.valueOf(minutes)));
+
+        for (MetricsManager.Timer timer : MetricsManager.Timer.values()) {
+            LatencyHistogram.Snapshot snapshot = metricsManager.snapshot(timer);
+            configManager.executeActions(sender, "stats.timer", Map.of(
+                    "name", timer.getDisplayName(),
+                    "count", String.valueOf(snapshot.count()),
+                    "p50", formatMillis(snapshot.p50()),
+                    "p95", formatMillis(snapshot.p95()),
+                    "p99", formatMillis(snapshot.p99()),
+                    "max", formatMillis(snapshot.max())
+            ));
+        }
+
+        sendCacheStats(sender, "/near", MetricsManager.Counter.NEAR_CACHE_HIT,
+                MetricsManager.Counter.NEAR_CACHE_MISS, MetricsManager.Counter.NEAR_CACHE_EVICTION);
+        sendCacheStats(sender, "радиусов", MetricsManager.Counter.RADIUS_CACHE_HIT,
+                MetricsManager.Counter.RADIUS_CACHE_MISS, MetricsManager.Counter.RADIUS_CACHE_EVICTION);
+
+        configManager.executeActions(sender, "stats.bossbars", Map.of(
+                "updated", String.valueOf(metricsManager.count(MetricsManager.Counter.BOSSBAR_UPDATED)),
+                "skipped", String.valueOf(metricsManager.count(MetricsManager.Counter.BOSSBAR_SKIPPED))
+        ));
+
+        long main = metricsManager.getMainThreadNanos();
+        long async = metricsManager.getAsyncNanos();
+        configManager.executeActions(sender, "stats.threads", Map.of(
+                "main", formatMillis(main),
+                "async", formatMillis(async),
+                "main-share", formatPercent(main, main + async)
+        ));
+    }
+
+    private void sendCacheStats(CommandSender sender, String name, MetricsManager.Counter hit,
+                                MetricsManager.Counter miss, MetricsManager.Counter eviction) {
+        long hits = metricsManager.count(hit);
+        long misses = metricsManager.count(miss);
+        configManager.executeActions(sender, "stats.cache", Map.of(
+                "name", name,
+                "hits", String.valueOf(hits),
+                "misses", String.valueOf(misses),
+                "evictions", String.valueOf(metricsManager.count(eviction)),
+                "hit-rate", formatPercent(hits, hits + misses)
+        ));
+    }
+
+    private String formatMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.2f", nanos / 1_000_000.0);
+    }
+
+    private String formatPercent(long part, long total) {
+        return total == 0 ? "0" : String.format(Locale.ROOT, "%.1f", part * 100.0 / total);
+    }
+
     private Map<String, String> createPh(String key, String value) {
         Map<String, String> map = new HashMap<>();
         map.put(key, value);
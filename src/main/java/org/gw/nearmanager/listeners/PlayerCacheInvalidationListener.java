@@ -3,82 +3,148 @@ package org.gw.nearmanager.listeners;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
 import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerMoveEvent;
 import org.bukkit.event.player.PlayerPortalEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.event.player.PlayerRespawnEvent;
 import org.bukkit.event.player.PlayerTeleportEvent;
 import org.gw.nearmanager.managers.BossBarManager;
+import org.gw.nearmanager.managers.ConfigManager;
 import org.gw.nearmanager.managers.NearPlayerManager;
+import org.gw.nearmanager.managers.SpatialGridManager;
+import org.gw.nearmanager.managers.TrackedPlayer;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.UUID;
 
 public final class PlayerCacheInvalidationListener implements Listener {
 
     private final NearPlayerManager nearPlayerManager;
     private final BossBarManager bossBarManager;
-    private final Map<UUID, Location> lastInvalidateLocations = new HashMap<>();
+    private final SpatialGridManager spatialGridManager;
+    private final ConfigManager configManager;
 
-    public PlayerCacheInvalidationListener(NearPlayerManager nearPlayerManager, BossBarManager bossBarManager) {
+    private UUID[] lastWorld = new UUID[0];
+    private double[] lastX = new double[0];
+    private double[] lastY = new double[0];
+    private double[] lastZ = new double[0];
+
+    public PlayerCacheInvalidationListener(NearPlayerManager nearPlayerManager, BossBarManager bossBarManager,
+                                           SpatialGridManager spatialGridManager, ConfigManager configManager) {
         this.nearPlayerManager = nearPlayerManager;
         this.bossBarManager = bossBarManager;
+        this.spatialGridManager = spatialGridManager;
+        this.configManager = configManager;
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        spatialGridManager.track(event.getPlayer());
+        resetSlot(event.getPlayer());
     }
 
-    @EventHandler
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onMove(PlayerMoveEvent event) {
-        if (!event.getFrom().getWorld().equals(event.getTo().getWorld())) {
-            nearPlayerManager.invalidateCache(event.getPlayer().getUniqueId());
+        Location from = event.getFrom();
+        Location to = event.getTo();
+        if (from.getBlockX() == to.getBlockX() && from.getBlockY() == to.getBlockY()
+                && from.getBlockZ() == to.getBlockZ() && from.getWorld() == to.getWorld()) return;
+
+        Player player = event.getPlayer();
+        spatialGridManager.update(player, to);
+        nearPlayerManager.handleTargetMove(player, from, to);
+
+        TrackedPlayer entry = spatialGridManager.get(player.getUniqueId());
+        if (entry == null) {
+            nearPlayerManager.invalidateCache(player.getUniqueId());
             return;
         }
 
-        Player player = event.getPlayer();
-        UUID uuid = player.getUniqueId();
-        Location lastLoc = lastInvalidateLocations.get(uuid);
+        int slot = entry.getSlot();
+        ensureCapacity(slot);
+
+        UUID worldId = entry.getWorldId();
+        double dx = to.getX() - lastX[slot];
+        double dy = to.getY() - lastY[slot];
+        double dz = to.getZ() - lastZ[slot];
+        double threshold = configManager.getNearCacheMoveThreshold();
 
-        if (lastLoc == null || !lastLoc.getWorld().equals(player.getWorld()) || lastLoc.distanceSquared(event.getTo()) > 16) {
-            lastInvalidateLocations.put(uuid, player.getLocation());
-            nearPlayerManager.invalidateCache(uuid);
+        if (lastWorld[slot] == null || !lastWorld[slot].equals(worldId) || dx * dx + dy * dy + dz * dz > threshold * threshold) {
+            remember(slot, worldId, to);
+            nearPlayerManager.invalidateCache(entry.getUuid());
         }
     }
 
-    @EventHandler
+    @EventHandler(priority = EventPriority.MONITOR)
     public void onWorldChange(PlayerChangedWorldEvent event) {
-        var uuid = event.getPlayer().getUniqueId();
-        nearPlayerManager.invalidateCache(uuid);
-        lastInvalidateLocations.remove(uuid);
-
-        if (bossBarManager.hasActiveBossBar(event.getPlayer())) {
-            bossBarManager.removeBossBar(event.getPlayer());
-        }
+        Player player = event.getPlayer();
+        spatialGridManager.track(player);
+        nearPlayerManager.invalidateCache(player.getUniqueId());
+        resetSlot(player);
+        bossBarManager.handleWorldChange(player);
     }
 
-    @EventHandler
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onTeleport(PlayerTeleportEvent event) {
-        var uuid = event.getPlayer().getUniqueId();
-        nearPlayerManager.invalidateCache(uuid);
-        lastInvalidateLocations.put(uuid, event.getTo());
+        relocate(event.getPlayer(), event.getFrom(), event.getTo());
     }
 
-    @EventHandler
+    @EventHandler(priority = EventPriority.MONITOR)
     public void onRespawn(PlayerRespawnEvent event) {
-        var uuid = event.getPlayer().getUniqueId();
-        nearPlayerManager.invalidateCache(uuid);
-        lastInvalidateLocations.put(uuid, event.getRespawnLocation());
+        relocate(event.getPlayer(), event.getPlayer().getLocation(), event.getRespawnLocation());
     }
 
-    @EventHandler
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onPortal(PlayerPortalEvent event) {
-        var uuid = event.getPlayer().getUniqueId();
-        nearPlayerManager.invalidateCache(uuid);
-        lastInvalidateLocations.put(uuid, event.getTo());
+        relocate(event.getPlayer(), event.getFrom(), event.getTo());
     }
 
-    @EventHandler
+    @EventHandler(priority = EventPriority.MONITOR)
     public void onQuit(PlayerQuitEvent event) {
-        lastInvalidateLocations.remove(event.getPlayer().getUniqueId());
+        Player player = event.getPlayer();
+        nearPlayerManager.handleTargetMove(player, player.getLocation(), null);
+        resetSlot(player);
+        spatialGridManager.remove(player.getUniqueId());
+    }
+
+    private void relocate(Player player, Location from, Location to) {
+        spatialGridManager.update(player, to);
+        nearPlayerManager.handleTargetMove(player, from, to);
+        nearPlayerManager.invalidateCache(player.getUniqueId());
+        bossBarManager.handleTeleport(player);
+
+        TrackedPlayer entry = spatialGridManager.get(player.getUniqueId());
+        if (entry == null || to == null || to.getWorld() == null) return;
+
+        ensureCapacity(entry.getSlot());
+        remember(entry.getSlot(), to.getWorld().getUID(), to);
+    }
+
+    private void remember(int slot, UUID worldId, Location location) {
+        lastWorld[slot] = worldId;
+        lastX[slot] = location.getX();
+        lastY[slot] = location.getY();
+        lastZ[slot] = location.getZ();
+    }
+
+    private void resetSlot(Player player) {
+        TrackedPlayer entry = spatialGridManager.get(player.getUniqueId());
+        if (entry != null && entry.getSlot() < lastWorld.length) {
+            lastWorld[entry.getSlot()] = null;
+        }
+    }
+
+    private void ensureCapacity(int slot) {
+        if (slot < lastWorld.length) return;
+
+        int capacity = Math.max(slot + 1, Math.max(16, lastWorld.length * 2));
+        lastWorld = Arrays.copyOf(lastWorld, capacity);
+        lastX = Arrays.copyOf(lastX, capacity);
+        lastY = Arrays.copyOf(lastY, capacity);
+        lastZ = Arrays.copyOf(lastZ, capacity);
     }
-}
\ No newline at end of file
+}
@@ -28,9 +28,6 @@ public final class PlayerQuitListener implements Listener {
         nearPlayerManager.clearCooldown(uuid);
         nearPlayerManager.invalidateCache(uuid);
         radiusManager.invalidate(uuid);
-
-        if (bossBarManager.hasActiveBossBar(event.getPlayer())) {
-            bossBarManager.removeBossBar(event.getPlayer());
-        }
+        bossBarManager.handleQuit(event.getPlayer());
     }
 }
\ No newline at end of file
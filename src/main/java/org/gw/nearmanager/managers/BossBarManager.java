@@ -3,49 +3,62 @@ package org.gw.nearmanager.managers;
 import net.kyori.adventure.bossbar.BossBar;
 import net.kyori.adventure.text.Component;
 import org.bukkit.Bukkit;
-import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.bukkit.scheduler.BukkitTask;
 import org.gw.nearmanager.NearManager;
+import org.gw.nearmanager.utils.Direction;
 import org.gw.nearmanager.utils.DirectionUtils;
+import org.gw.nearmanager.utils.FragmentPool;
 import org.gw.nearmanager.utils.HexColors;
+import org.gw.nearmanager.utils.PlaceholderAPIHook;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 public final class BossBarManager {
 
+    private static final int PROGRESS_STEPS = 200;
+    private static final double BLOCKS_PER_INTERVAL_TICK = 16.0;
+    private static final int RING_CAPACITY = 4096;
+    // дистанция-метка: наблюдатель и цель в разных мирах
+    private static final double OTHER_WORLD = Double.POSITIVE_INFINITY;
+
     private final NearManager plugin;
     private final ConfigManager configManager;
+    private final SpatialGridManager spatialGridManager;
+    private final PositionSnapshotManager positionSnapshotManager;
+    private final MetricsManager metricsManager;
     private final Map<UUID, BossBarData> activeBossBars = new ConcurrentHashMap<>();
-    private record BossBarData(BossBar bossBar, UUID targetId, long startTime, boolean nodist, boolean notime) {}
-    private record BossBarTaskSnapshot(
-            UUID viewerId,
-            String baseText,
-            double viewerX,
-            double viewerY,
-            double viewerZ,
-            float viewerYaw,
-            double targetX,
-            double targetY,
-            double targetZ,
-            String targetName,
-            long startTime,
-            boolean nodist,
-            boolean notime,
-            BossBar bossBar,
-            int state
-    ) {}
+    private final Map<UUID, Set<BossBarData>> barsByTarget = new ConcurrentHashMap<>();
+    private final Queue<BossBarEffect> effects = new ConcurrentLinkedQueue<>();
+    private final SnapshotRing ring = new SnapshotRing(RING_CAPACITY);
+    private final Function<PositionSnapshot, Void> positionReader = this::readPositions;
 
     private BukkitTask updateTask;
-
-    public BossBarManager(NearManager plugin, ConfigManager configManager) {
+    private volatile Thread worker;
+    private volatile boolean workerRunning;
+    private long currentTick;
+    private volatile List<BossBarData>[] shards = createShards(1);
+    private int[] processedPerShard = new int[1];
+
+    public BossBarManager(NearManager plugin, ConfigManager configManager, SpatialGridManager spatialGridManager,
+                          PositionSnapshotManager positionSnapshotManager, MetricsManager metricsManager) {
         this.plugin = plugin;
         this.configManager = configManager;
+        this.spatialGridManager = spatialGridManager;
+        this.positionSnapshotManager = positionSnapshotManager;
+        this.metricsManager = metricsManager;
 
         if (configManager.isBossBarEnabled()) {
             startGlobalUpdateTask();
@@ -57,157 +70,253 @@ public final class BossBarManager {
             updateTask.cancel();
         }
 
-        int interval = Math.max(1, configManager.getBossBarUpdateInterval());
+        int shardCount = configManager.isBossBarAdaptiveIntervalEnabled()
+                ? configManager.getBossBarMinInterval()
+                : Math.max(1, configManager.getBossBarUpdateInterval());
+        List<BossBarData>[] newShards = createShards(shardCount);
+        for (BossBarData data : activeBossBars.values()) {
+            attach(newShards, data);
+        }
+        shards = newShards;
+        processedPerShard = new int[shardCount];
 
+        startWorker();
         updateTask = new BukkitRunnable() {
             @Override
             public void run() {
-                if (activeBossBars.isEmpty()) return;
-
-                List<BossBarTaskSnapshot> snapshots = new ArrayList<>();
-                for (Map.Entry<UUID, BossBarData> entry : activeBossBars.entrySet()) {
-                    UUID viewerId = entry.getKey();
-                    BossBarData data = entry.getValue();
-
-                    Player viewer = Bukkit.getPlayer(viewerId);
-                    if (viewer == null || !viewer.isOnline()) {
-                        snapshots.add(new BossBarTaskSnapshot(viewerId, null, 0.0, 0.0, 0.0, 0.0f, 0.0, 0.0, 0.0, "", data.startTime(), data.nodist(), data.notime(), data.bossBar(), 0));
-                        continue;
-                    }
-
-                    Player target = Bukkit.getPlayer(data.targetId());
-                    if (target == null || !target.isOnline()) {
-                        snapshots.add(new BossBarTaskSnapshot(viewerId, null, 0.0, 0.0, 0.0, 0.0f, 0.0, 0.0, 0.0, "", data.startTime(), data.nodist(), data.notime(), data.bossBar(), 1));
-                        continue;
-                    }
-
-                    if (!viewer.getWorld().equals(target.getWorld())) {
-                        snapshots.add(new BossBarTaskSnapshot(viewerId, null, 0.0, 0.0, 0.0, 0.0f, 0.0, 0.0, 0.0, target.getName(), data.startTime(), data.nodist(), data.notime(), data.bossBar(), 2));
-                        continue;
-                    }
-
-                    String baseText = org.gw.nearmanager.utils.PlaceholderAPIHook.parse(viewer, configManager.getBossBarText());
-                    Location vLoc = viewer.getLocation();
-                    Location tLoc = target.getLocation();
-
-                    snapshots.add(new BossBarTaskSnapshot(
-                            viewerId, baseText, vLoc.getX(), vLoc.getY(), vLoc.getZ(), vLoc.getYaw(),
-                            tLoc.getX(), tLoc.getY(), tLoc.getZ(), target.getName(),
-                            data.startTime(), data.nodist(), data.notime(), data.bossBar(), 3
-                    ));
-                }
-
-                Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> processBossBarsAsync(snapshots));
+                tick();
             }
-        }.runTaskTimer(plugin, 0L, interval);
+        }.runTaskTimer(plugin, 0L, 1L);
     }
 
-    private void processBossBarsAsync(List<BossBarTaskSnapshot> snapshots) {
+    void tick() {
+        long tick = ++currentTick;
+        drainEffects();
         if (activeBossBars.isEmpty()) return;
 
-        List<UUID> toRemove = new ArrayList<>();
-        boolean isTimeMode = "time".equals(configManager.getBossBarProgressMode());
+        long start = metricsManager.start();
+        List<BossBarData> bars = shards[(int) (tick % shards.length)];
+        int published = 0;
+        for (int i = 0, size = bars.size(); i < size && ring.hasCapacity(); i++) {
+            BossBarData data = bars.get(i);
+            if (!data.claimUpdate(tick)) continue;
 
-        for (BossBarTaskSnapshot snap : snapshots) {
-            UUID viewerId = snap.viewerId();
+            ring.write(data, PlaceholderAPIHook.parse(data.viewer().getPlayer(), configManager.getBossBarText()), tick);
+            published++;
+        }
 
-            if (snap.state() == 0) {
-                toRemove.add(viewerId);
-                continue;
-            }
+        processedPerShard[(int) (tick % processedPerShard.length)] = published;
+        if (published > 0) {
+            ring.publish();
+            LockSupport.unpark(worker);
+        }
+        metricsManager.record(MetricsManager.Timer.BOSSBAR_TICK, start);
+    }
+
+    private void startWorker() {
+        stopWorker();
+        ring.reset();
+
+        workerRunning = true;
+        Thread thread = new Thread(this::runWorker, "NearManager-BossBar");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    void stopWorker() {
+        Thread thread = worker;
+        workerRunning = false;
+        worker = null;
+        if (thread == null) return;
+
+        LockSupport.unpark(thread);
+        try {
+            thread.join(1000L);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void runWorker() {
+        while (workerRunning) {
+            if (!drainRing()) LockSupport.park(this);
+        }
+    }
 
-            if (snap.state() == 1) {
-                Bukkit.getScheduler().runTask(plugin, () -> {
-                    Player viewer = Bukkit.getPlayer(viewerId);
-                    if (viewer != null) {
-                        plugin.log("Боссбар для &#ffff00" + viewer.getName() + " &fснят, так как цель вышла из сети...");
-                    }
-                });
-                toRemove.add(viewerId);
+    boolean drainRing() {
+        long from = ring.consumed;
+        long to = ring.published;
+        if (from == to) return false;
+
+        long start = metricsManager.start();
+        try {
+            processBossBars(from, to);
+        } catch (RuntimeException e) {
+            plugin.error("Ошибка при обновлении боссбаров: " + e.getMessage());
+        }
+        metricsManager.record(MetricsManager.Timer.BOSSBAR_WORKER, start);
+        ring.release(from, to);
+        return true;
+    }
+
+    private Void readPositions(PositionSnapshot positions) {
+        for (long seq = ring.readFrom; seq < ring.readTo; seq++) {
+            int i = ring.index(seq);
+            int viewerSlot = ring.viewerSlot[i];
+            int targetSlot = ring.targetSlot[i];
+            int viewerWorld = positions.getWorldIndex(viewerSlot);
+            int targetWorld = positions.getWorldIndex(targetSlot);
+            if (viewerWorld < 0 || targetWorld < 0) {
+                ring.distance[i] = Double.NaN;
                 continue;
             }
-
-            if (snap.state() == 2) {
-                Bukkit.getScheduler().runTask(plugin, () -> {
-                    Player viewer = Bukkit.getPlayer(viewerId);
-                    if (viewer != null) {
-                        configManager.executeActions(viewer, "bossbar.player-changed-world", Map.of("player", snap.targetName()));
-                        plugin.log("Боссбар для &#ffff00" + viewer.getName() + " &fснят, так как цель &#ffff00" + snap.targetName() + " &fсменила мир...");
-                    }
-                });
-                toRemove.add(viewerId);
+            if (viewerWorld != targetWorld) {
+                ring.distance[i] = OTHER_WORLD;
                 continue;
             }
+            double viewerX = positions.getX(viewerSlot);
+            double viewerZ = positions.getZ(viewerSlot);
+            double targetX = positions.getX(targetSlot);
+            double targetZ = positions.getZ(targetSlot);
+
+            double dx = viewerX - targetX;
+            double dy = positions.getY(viewerSlot) - positions.getY(targetSlot);
+            double dz = viewerZ - targetZ;
+            ring.distance[i] = Math.sqrt(dx * dx + dy * dy + dz * dz);
+            ring.direction[i] = DirectionUtils.getDirection(
+                    viewerX, viewerZ, positions.getYaw(viewerSlot), targetX, targetZ
+            );
+        }
+        return null;
+    }
 
-            double dx = snap.viewerX() - snap.targetX();
-            double dy = snap.viewerY() - snap.targetY();
-            double dz = snap.viewerZ() - snap.targetZ();
-            double distance = Math.sqrt(dx * dx + dy * dy + dz * dz);
+    private void processBossBars(long from, long to) {
+        ring.readFrom = from;
+        ring.readTo = to;
+        positionSnapshotManager.read(positionReader);
 
-            String direction = configManager.getDirection(DirectionUtils.getDirectionKey(
-                    snap.viewerX(), snap.viewerZ(), snap.viewerYaw(),
-                    snap.targetX(), snap.targetZ()
-            ));
+        boolean isTimeMode = "time".equals(configManager.getBossBarProgressMode());
+        for (long seq = from; seq < to; seq++) {
+            int i = ring.index(seq);
+            BossBarData data = ring.data[i];
+            long tick = ring.tick[i];
+            String targetName = data.targetName();
+
+            double distance = ring.distance[i];
+            Direction direction = ring.direction[i];
+            if (Double.isNaN(distance)) {
+                data.scheduleNext(tick + alignToShard(configManager.getBossBarMinInterval()));
+                continue;
+            }
+            if (distance == OTHER_WORLD) {
+                remove(data, "bossbar.player-changed-world",
+                        " &fснят, так как цель &#ffff00" + targetName + " &fсменила мир...", effects::offer);
+                continue;
+            }
 
-            if (!snap.nodist()) {
+            if (!data.nodist()) {
                 if (configManager.isBossBarMinDistanceEnabled() && distance <= configManager.getBossBarMinDistance()) {
-                    Bukkit.getScheduler().runTask(plugin, () -> {
-                        Player viewer = Bukkit.getPlayer(viewerId);
-                        if (viewer != null) {
-                            configManager.executeActions(viewer, "bossbar.gone-close", Map.of("player", snap.targetName()));
-                            plugin.log("Боссбар для &#ffff00" + viewer.getName() + " &fснят, так как цель &#ffff00" + snap.targetName() + " &fслишком близко...");
-                        }
-                    });
-                    toRemove.add(viewerId);
+                    remove(data, "bossbar.gone-close",
+                            " &fснят, так как цель &#ffff00" + targetName + " &fслишком близко...", effects::offer);
                     continue;
                 }
                 if (configManager.isBossBarMaxDistanceEnabled() && distance >= configManager.getBossBarMaxDistance()) {
-                    Bukkit.getScheduler().runTask(plugin, () -> {
-                        Player viewer = Bukkit.getPlayer(viewerId);
-                        if (viewer != null) {
-                            configManager.executeActions(viewer, "bossbar.gone-far", Map.of("player", snap.targetName()));
-                            plugin.log("Боссбар для &#ffff00" + viewer.getName() + " &fснят, так как цель &#ffff00" + snap.targetName() + " &fслишком далеко...");
-                        }
-                    });
-                    toRemove.add(viewerId);
+                    remove(data, "bossbar.gone-far",
+                            " &fснят, так как цель &#ffff00" + targetName + " &fслишком далеко...", effects::offer);
                     continue;
                 }
             }
 
-            long elapsed = (System.currentTimeMillis() - snap.startTime()) / 1000;
-            if (!snap.notime() && configManager.isBossBarTimeoutEnabled() && elapsed >= configManager.getBossBarTimeout()) {
-                Bukkit.getScheduler().runTask(plugin, () -> {
-                    Player viewer = Bukkit.getPlayer(viewerId);
-                    if (viewer != null) {
-                        configManager.executeActions(viewer, "bossbar.timeout", Map.of("player", snap.targetName()));
-                        plugin.log("Боссбар для &#ffff00" + viewer.getName() + " &fснят по таймауту времени...");
-                    }
-                });
-                toRemove.add(viewerId);
+            long elapsed = (System.currentTimeMillis() - data.startTime()) / 1000;
+            if (!data.notime() && configManager.isBossBarTimeoutEnabled() && elapsed >= configManager.getBossBarTimeout()) {
+                remove(data, "bossbar.timeout", " &fснят по таймауту времени...", effects::offer);
                 continue;
             }
 
-            Component newText = buildBossBarText(snap.baseText(), snap.targetName(), distance, direction);
-            snap.bossBar().name(newText);
+            data.scheduleNext(tick + nextInterval(data, distance, tick, elapsed, data.nodist(), data.notime()));
+
+            boolean updated = false;
+            String baseText = ring.baseText[i];
+            if (data.isTextChanged((int) distance, direction, baseText.hashCode())) {
+                data.bossBar().name(buildBossBarText(baseText, targetName, data.targetFragment(),
+                        (int) distance, direction));
+                updated = true;
+            }
 
             if (configManager.isBossBarProgressEnabled()) {
-                float progress = calculateProgress(distance, elapsed, snap.nodist(), snap.notime(), isTimeMode);
-                snap.bossBar().progress(Math.max(0.0f, Math.min(1.0f, progress)));
+                float progress = calculateProgress(distance, elapsed, data.nodist(), data.notime(), isTimeMode);
+                int steps = Math.round(Math.max(0.0f, Math.min(1.0f, progress)) * PROGRESS_STEPS);
+                if (data.isProgressChanged(steps)) {
+                    data.bossBar().progress((float) steps / PROGRESS_STEPS);
+                    updated = true;
+                }
             }
+            metricsManager.increment(updated ? MetricsManager.Counter.BOSSBAR_UPDATED : MetricsManager.Counter.BOSSBAR_SKIPPED);
         }
+    }
 
-        if (!toRemove.isEmpty()) {
-            Bukkit.getScheduler().runTask(plugin, () -> {
-                for (UUID uuid : toRemove) {
-                    BossBarData data = activeBossBars.remove(uuid);
-                    if (data != null) {
-                        Player player = Bukkit.getPlayer(uuid);
-                        if (player != null && player.isOnline()) {
-                            player.hideBossBar(data.bossBar());
-                        }
-                    }
-                }
-            });
+    private static void remove(BossBarData data, String action, String reason, Consumer<BossBarEffect> sink) {
+        if (action != null) sink.accept(new RunActions(data, action));
+        sink.accept(new LogRemoval(data, reason));
+        sink.accept(new HideBar(data));
+    }
+
+    public void handleQuit(Player player) {
+        removeBossBar(player);
+        for (BossBarData data : barsTargeting(player)) {
+            remove(data, null, " &fснят, так как цель вышла из сети...", this::apply);
+        }
+    }
+
+    public void handleWorldChange(Player player) {
+        removeBossBar(player);
+        UUID worldId = player.getWorld().getUID();
+        for (BossBarData data : barsTargeting(player)) {
+            if (worldId.equals(data.viewer().getPlayer().getWorld().getUID())) continue;
+            remove(data, "bossbar.player-changed-world",
+                    " &fснят, так как цель &#ffff00" + data.targetName() + " &fсменила мир...", this::apply);
+        }
+    }
+
+    public void handleTeleport(Player player) {
+        BossBarData own = activeBossBars.get(player.getUniqueId());
+        if (own != null) own.reschedule(currentTick);
+        for (BossBarData data : barsTargeting(player)) {
+            data.reschedule(currentTick);
+        }
+    }
+
+    private BossBarData[] barsTargeting(Player player) {
+        Set<BossBarData> bars = barsByTarget.get(player.getUniqueId());
+        return bars != null ? bars.toArray(new BossBarData[0]) : new BossBarData[0];
+    }
+
+    private void drainEffects() {
+        int budget = configManager.getBossBarEffectsPerTick();
+        BossBarEffect effect;
+        while (budget-- > 0 && (effect = effects.poll()) != null) {
+            try {
+                apply(effect);
+            } catch (RuntimeException e) {
+                plugin.error("Ошибка при выполнении действия боссбара: " + e.getMessage());
+            }
+        }
+    }
+
+    private void apply(BossBarEffect effect) {
+        BossBarData data = effect.data();
+        if (activeBossBars.get(data.viewerId()) != data) return;
+
+        Player viewer = data.viewer().getPlayer();
+        if (effect instanceof RunActions run) {
+            if (viewer.isOnline()) configManager.executeActions(viewer, run.action(), Map.of("player", data.targetName()));
+        } else if (effect instanceof LogRemoval log) {
+            plugin.log("Боссбар для &#ffff00" + viewer.getName() + log.reason());
+        } else if (effect instanceof HideBar) {
+            activeBossBars.remove(data.viewerId(), data);
+            unlink(data);
+            if (viewer.isOnline()) viewer.hideBossBar(data.bossBar());
         }
     }
 
@@ -224,11 +333,8 @@ public final class BossBarManager {
             return;
         }
 
-        Component initialText = HexColors.translateToComponent(configManager.getBossBarText()
-                .replace("{player}", target.getName())
-                .replace("{distance}", "???")
-                .replace("{direction}", "⬆")
-                .replace("{blocks-word-format}", configManager.getBlockDeclension(1)));
+        Component initialText = configManager.getBossBarTemplate()
+                .render(target.getName(), "???", "⬆", configManager.getBlockDeclension(1));
 
         BossBar bossBar = BossBar.bossBar(
                 initialText,
@@ -237,10 +343,16 @@ public final class BossBarManager {
                 configManager.getBossBarOverlayEnum()
         );
 
+        TrackedPlayer viewerEntry = resolve(viewer);
+        TrackedPlayer targetEntry = resolve(target);
+        if (viewerEntry == null || targetEntry == null) return;
+
         viewer.showBossBar(bossBar);
 
-        BossBarData data = new BossBarData(bossBar, target.getUniqueId(), System.currentTimeMillis(), nodist, notime);
+        BossBarData data = new BossBarData(bossBar, viewerEntry, targetEntry, System.currentTimeMillis(), nodist, notime);
         activeBossBars.put(viewer.getUniqueId(), data);
+        barsByTarget.computeIfAbsent(target.getUniqueId(), id -> ConcurrentHashMap.newKeySet()).add(data);
+        attach(shards, data);
 
         configManager.executeActions(viewer, "bossbar.activated", Map.of("player", target.getName()));
         plugin.log("Активирован боссбар для игрока &#ffff00" + viewer.getName() + " на цель &#ffff00" + target.getName());
@@ -248,19 +360,26 @@ public final class BossBarManager {
 
     public void removeBossBar(Player viewer) {
         if (viewer == null) return;
-        BossBarData data = activeBossBars.remove(viewer.getUniqueId());
+        BossBarData data = detach(viewer.getUniqueId());
         if (data != null && viewer.isOnline()) {
             viewer.hideBossBar(data.bossBar());
             plugin.log("Боссбар для игрока &#ffff00" + viewer.getName() + " принудительно удален!");
         }
     }
 
-    private Component buildBossBarText(String baseText, String targetName, double distance, String direction) {
+    Component buildBossBarText(String baseText, String targetName, Component targetFragment, int distance,
+                               Direction direction) {
+        FragmentPool fragments = configManager.getFragmentPool();
+        if (baseText.equals(configManager.getBossBarText())) {
+            return configManager.getBossBarTemplate().renderFragments(targetFragment,
+                    fragments.distance(distance), fragments.direction(direction), fragments.declension(distance));
+        }
+
         String text = baseText
                 .replace("{player}", targetName)
-                .replace("{distance}", configManager.formatNumber((int) distance))
-                .replace("{direction}", direction)
-                .replace("{blocks-word-format}", configManager.getBlockDeclension((int) distance));
+                .replace("{distance}", fragments.distanceText(distance))
+                .replace("{direction}", fragments.directionText(direction))
+                .replace("{blocks-word-format}", fragments.declensionText(distance));
 
         return HexColors.translateToComponent(text);
     }
@@ -288,6 +407,86 @@ public final class BossBarManager {
             }
         }
         activeBossBars.clear();
+        barsByTarget.clear();
+        effects.clear();
+        for (List<BossBarData> shard : shards) {
+            shard.clear();
+        }
+    }
+
+    public List<ShardLoad> getShardLoads() {
+        List<BossBarData>[] current = shards;
+        int[] processed = processedPerShard;
+
+        List<ShardLoad> loads = new ArrayList<>(current.length);
+        for (int i = 0; i < current.length; i++) {
+            loads.add(new ShardLoad(i, current[i].size(), i < processed.length ? processed[i] : 0));
+        }
+        return loads;
+    }
+
+    private BossBarData detach(UUID viewerId) {
+        BossBarData data = activeBossBars.remove(viewerId);
+        if (data != null) unlink(data);
+        return data;
+    }
+
+    private TrackedPlayer resolve(Player player) {
+        TrackedPlayer entry = spatialGridManager.get(player.getUniqueId());
+        if (entry == null || entry.getPlayer() != player) {
+            spatialGridManager.track(player);
+            entry = spatialGridManager.get(player.getUniqueId());
+        }
+        return entry;
+    }
+
+    private static void attach(List<BossBarData>[] target, BossBarData data) {
+        List<BossBarData> bars = target[shardOf(data.viewer().getSlot(), target.length)];
+        data.shardPosition = bars.size();
+        bars.add(data);
+    }
+
+    private void unlink(BossBarData data) {
+        barsByTarget.computeIfPresent(data.target().getUuid(), (id, bars) -> {
+            bars.remove(data);
+            return bars.isEmpty() ? null : bars;
+        });
+
+        List<BossBarData> bars = shards[shardOf(data.viewer().getSlot(), shards.length)];
+        int position = data.shardPosition;
+        if (position >= bars.size() || bars.get(position) != data) return;
+
+        BossBarData last = bars.remove(bars.size() - 1);
+        if (last != data) {
+            bars.set(position, last);
+            last.shardPosition = position;
+        }
+    }
+
+    private int alignToShard(int interval) {
+        int shardCount = shards.length;
+        return Math.max(1, (interval + shardCount - 1) / shardCount) * shardCount;
+    }
+
+    private int alignToShard(int interval, long limit) {
+        int aligned = alignToShard(interval);
+        if (aligned <= limit) return aligned;
+
+        int shardCount = shards.length;
+        return (int) Math.max(shardCount, limit / shardCount * shardCount);
+    }
+
+    private static int shardOf(int viewerSlot, int shardCount) {
+        return Integer.remainderUnsigned(viewerSlot * 0x9E3779B9, shardCount);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<BossBarData>[] createShards(int count) {
+        List<BossBarData>[] result = new List[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = new ArrayList<>();
+        }
+        return result;
     }
 
     public void shutdown() {
@@ -295,6 +494,7 @@ public final class BossBarManager {
             updateTask.cancel();
             updateTask = null;
         }
+        stopWorker();
         removeAll();
     }
 
@@ -308,7 +508,48 @@ public final class BossBarManager {
     public UUID getTargetId(Player viewer) {
         if (viewer == null) return null;
         BossBarData data = activeBossBars.get(viewer.getUniqueId());
-        return data != null ? data.targetId() : null;
+        return data != null ? data.target().getUuid() : null;
+    }
+
+    private int nextInterval(BossBarData data, double distance, long tick, long elapsedSeconds,
+                             boolean nodist, boolean notime) {
+        double speed = data.sampleSpeed(distance, tick);
+        if (!configManager.isBossBarAdaptiveIntervalEnabled()) {
+            return alignToShard(Math.max(1, configManager.getBossBarUpdateInterval()));
+        }
+
+        int floor = configManager.getBossBarMinInterval();
+        int ceiling = configManager.getBossBarMaxInterval();
+        double interval = distance / BLOCKS_PER_INTERVAL_TICK;
+        if (speed > 0.0) {
+            interval = Math.min(interval, 1.0 / speed);
+        }
+
+        double thresholdTicks = Double.MAX_VALUE;
+        if (!nodist && configManager.isBossBarMinDistanceEnabled()) {
+            thresholdTicks = Math.min(thresholdTicks, ticksToThreshold(distance - configManager.getBossBarMinDistance(), speed));
+        }
+        if (!nodist && configManager.isBossBarMaxDistanceEnabled()) {
+            thresholdTicks = Math.min(thresholdTicks, ticksToThreshold(configManager.getBossBarMaxDistance() - distance, speed));
+        }
+
+        int result = (int) Math.max(floor, Math.min(ceiling, Math.min(interval, thresholdTicks)));
+        long limit = (long) Math.min(Long.MAX_VALUE, Math.max(1.0, thresholdTicks));
+        if (!notime && configManager.isBossBarTimeoutEnabled()) {
+            long remainingTicks = (configManager.getBossBarTimeout() - elapsedSeconds) * 20L;
+            limit = Math.max(1L, Math.min(limit, remainingTicks));
+        }
+        return alignToShard(Math.min(result, (int) Math.min(Integer.MAX_VALUE, limit)), limit);
+    }
+
+    // неподвижная цель может сорваться с места в любой момент, поэтому запас по порогу считается
+    // и от наблюдаемой скорости, и от наибольшей допустимой
+    private double ticksToThreshold(double gap, double speed) {
+        double ticks = gap / configManager.getBossBarMaxApproachSpeed();
+        if (speed > 0.0) {
+            ticks = Math.min(ticks, gap / speed / 2.0);
+        }
+        return ticks;
     }
 
     private float calculateProgress(double distance, long elapsed, boolean nodist, boolean notime, boolean isTimeMode) {
@@ -335,4 +576,193 @@ public final class BossBarManager {
         }
         return (float) (configManager.getBossBarMaxProgress() / 100f * (1 - distance / maxDist));
     }
+
+    public record ShardLoad(int shard, int bars, int processed) {}
+
+    private sealed interface BossBarEffect permits RunActions, LogRemoval, HideBar {
+        BossBarData data();
+    }
+
+    private record RunActions(BossBarData data, String action) implements BossBarEffect {}
+
+    private record LogRemoval(BossBarData data, String reason) implements BossBarEffect {}
+
+    private record HideBar(BossBarData data) implements BossBarEffect {}
+
+    private static final class SnapshotRing {
+
+        private final int mask;
+        private final BossBarData[] data;
+        private final int[] viewerSlot;
+        private final int[] targetSlot;
+        private final String[] baseText;
+        private final long[] tick;
+        private final double[] distance;
+        private final Direction[] direction;
+
+        private long written;
+        private volatile long published;
+        private volatile long consumed;
+        private long readFrom;
+        private long readTo;
+
+        private SnapshotRing(int capacity) {
+            mask = capacity - 1;
+            data = new BossBarData[capacity];
+            viewerSlot = new int[capacity];
+            targetSlot = new int[capacity];
+            baseText = new String[capacity];
+            tick = new long[capacity];
+            distance = new double[capacity];
+            direction = new Direction[capacity];
+        }
+
+        private int index(long sequence) {
+            return (int) (sequence & mask);
+        }
+
+        private boolean hasCapacity() {
+            return written - consumed <= mask;
+        }
+
+        private void write(BossBarData bar, String text, long barTick) {
+            int i = index(written++);
+            data[i] = bar;
+            viewerSlot[i] = bar.viewer().getSlot();
+            targetSlot[i] = bar.target().getSlot();
+            baseText[i] = text;
+            tick[i] = barTick;
+        }
+
+        private void publish() {
+            published = written;
+        }
+
+        private void release(long from, long to) {
+            for (long seq = from; seq < to; seq++) {
+                int i = index(seq);
+                data[i] = null;
+                baseText[i] = null;
+                direction[i] = null;
+            }
+            consumed = to;
+        }
+
+        private void reset() {
+            Arrays.fill(data, null);
+            Arrays.fill(baseText, null);
+            Arrays.fill(direction, null);
+            written = 0L;
+            published = 0L;
+            consumed = 0L;
+        }
+    }
+
+    private static final class BossBarData {
+
+        private final BossBar bossBar;
+        private final TrackedPlayer viewer;
+        private final TrackedPlayer target;
+        private final long startTime;
+        private final boolean nodist;
+        private final boolean notime;
+        private final Component targetFragment;
+
+        private int shardPosition;
+        private volatile long nextUpdateTick;
+        private double lastSampleDistance = Double.NaN;
+        private long lastSampleTick;
+        private int lastDistance = -1;
+        private Direction lastDirection;
+        private int lastTextHash;
+        private int lastProgress = -1;
+
+        private BossBarData(BossBar bossBar, TrackedPlayer viewer, TrackedPlayer target, long startTime,
+                            boolean nodist, boolean notime) {
+            this.bossBar = bossBar;
+            this.viewer = viewer;
+            this.target = target;
+            this.startTime = startTime;
+            this.nodist = nodist;
+            this.notime = notime;
+            this.targetFragment = Component.text(target.getName());
+        }
+
+        private BossBar bossBar() {
+            return bossBar;
+        }
+
+        private TrackedPlayer viewer() {
+            return viewer;
+        }
+
+        private TrackedPlayer target() {
+            return target;
+        }
+
+        private UUID viewerId() {
+            return viewer.getUuid();
+        }
+
+        private String targetName() {
+            return target.getName();
+        }
+
+        private Component targetFragment() {
+            return targetFragment;
+        }
+
+        private long startTime() {
+            return startTime;
+        }
+
+        private boolean nodist() {
+            return nodist;
+        }
+
+        private boolean notime() {
+            return notime;
+        }
+
+        private boolean claimUpdate(long tick) {
+            if (nextUpdateTick > tick) return false;
+
+            nextUpdateTick = Long.MAX_VALUE;
+            return true;
+        }
+
+        private void scheduleNext(long tick) {
+            nextUpdateTick = tick;
+        }
+
+        private void reschedule(long tick) {
+            if (nextUpdateTick != Long.MAX_VALUE) nextUpdateTick = tick;
+        }
+
+        private synchronized double sampleSpeed(double distance, long tick) {
+            double speed = 0.0;
+            if (!Double.isNaN(lastSampleDistance) && tick > lastSampleTick) {
+                speed = Math.abs(distance - lastSampleDistance) / (tick - lastSampleTick);
+            }
+            lastSampleDistance = distance;
+            lastSampleTick = tick;
+            return speed;
+        }
+
+        private synchronized boolean isTextChanged(int distance, Direction direction, int textHash) {
+            if (distance == lastDistance && textHash == lastTextHash && direction == lastDirection) return false;
+
+            lastDistance = distance;
+            lastDirection = direction;
+            lastTextHash = textHash;
+            return true;
+        }
+
+        private synchronized boolean isProgressChanged(int progress) {
+            if (progress == lastProgress) return false;
+
+            lastProgress = progress;
+            return true;
+        }
+    }
 }
\ No newline at end of file
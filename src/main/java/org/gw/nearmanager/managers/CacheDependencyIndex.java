@@ -0,0 +1,220 @@
+package org.gw.nearmanager.managers;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+
+final class CacheDependencyIndex {
+
+    private static final int[] LEVEL_SHIFTS = {4, 7, 10, 13, 16};
+    private static final int MAX_REGION_CELLS = 16;
+
+    private final Map<UUID, WorldRegions> worlds = new ConcurrentHashMap<>();
+    private final Map<UUID, Map<NearCacheManager.CachedNearResult, NearPlayerManager.PlayerDistance>> dependents =
+            new ConcurrentHashMap<>();
+    private final ThreadLocal<AffectedScan> scans = ThreadLocal.withInitial(AffectedScan::new);
+
+    void register(NearCacheManager.CachedNearResult entry) {
+        NearCacheManager.QueryRegion region = entry.region;
+        if (region.worldId() == null) return;
+
+        worlds.computeIfAbsent(region.worldId(), id -> new WorldRegions()).link(entry);
+        for (NearPlayerManager.PlayerDistance pd : entry.result.players()) {
+            dependents.computeIfAbsent(pd.uuid(), id -> new ConcurrentHashMap<>()).put(entry, pd);
+        }
+    }
+
+    void unregister(NearCacheManager.CachedNearResult entry) {
+        NearCacheManager.QueryRegion region = entry.region;
+        if (region.worldId() == null) return;
+
+        WorldRegions regions = worlds.get(region.worldId());
+        if (regions != null) regions.unlink(entry);
+
+        for (NearPlayerManager.PlayerDistance pd : entry.result.players()) {
+            dependents.computeIfPresent(pd.uuid(), (id, entries) -> {
+                entries.remove(entry);
+                return entries.isEmpty() ? null : entries;
+            });
+        }
+    }
+
+    void clear() {
+        worlds.clear();
+        dependents.clear();
+    }
+
+    void forEachAffected(UUID targetId, int flags, double moveThresholdSq,
+                         UUID fromWorld, double fx, double fy, double fz,
+                         UUID toWorld, double tx, double ty, double tz,
+                         Consumer<NearCacheManager.CachedNearResult> sink) {
+        Map<NearCacheManager.CachedNearResult, NearPlayerManager.PlayerDistance> contained = dependents.get(targetId);
+        WorldRegions to = toWorld != null ? worlds.get(toWorld) : null;
+        WorldRegions from = fromWorld != null ? worlds.get(fromWorld) : null;
+        if (contained == null && to == null && from == null) return;
+
+        AffectedScan scan = scans.get();
+        scan.begin(targetId, flags, moveThresholdSq, contained, fromWorld, fx, fy, fz, toWorld, tx, ty, tz, sink);
+        try {
+            if (contained != null) contained.forEach(scan.containedVisitor);
+            if (to != null) to.forEachAt(tx, tz, scan.enteringVisitor);
+            if (from != null) from.forEachAt(fx, fz, scan.leavingVisitor);
+        } finally {
+            scan.end();
+        }
+    }
+
+    // состояние одного прохода; переиспользуется потоком, чтобы перемещение не создавало лямбд и списков
+    private static final class AffectedScan {
+
+        private final BiConsumer<NearCacheManager.CachedNearResult, NearPlayerManager.PlayerDistance> containedVisitor =
+                this::visitContained;
+        private final Consumer<NearCacheManager.CachedNearResult> enteringVisitor = this::visitEntering;
+        private final Consumer<NearCacheManager.CachedNearResult> leavingVisitor = this::visitLeaving;
+
+        private UUID targetId;
+        private int flags;
+        private double moveThresholdSq;
+        private Map<NearCacheManager.CachedNearResult, NearPlayerManager.PlayerDistance> contained;
+        private UUID fromWorld;
+        private double fx, fy, fz;
+        private UUID toWorld;
+        private double tx, ty, tz;
+        private Consumer<NearCacheManager.CachedNearResult> sink;
+
+        private void begin(UUID targetId, int flags, double moveThresholdSq,
+                           Map<NearCacheManager.CachedNearResult, NearPlayerManager.PlayerDistance> contained,
+                           UUID fromWorld, double fx, double fy, double fz,
+                           UUID toWorld, double tx, double ty, double tz,
+                           Consumer<NearCacheManager.CachedNearResult> sink) {
+            this.targetId = targetId;
+            this.flags = flags;
+            this.moveThresholdSq = moveThresholdSq;
+            this.contained = contained;
+            this.fromWorld = fromWorld;
+            this.fx = fx;
+            this.fy = fy;
+            this.fz = fz;
+            this.toWorld = toWorld;
+            this.tx = tx;
+            this.ty = ty;
+            this.tz = tz;
+            this.sink = sink;
+        }
+
+        private void end() {
+            targetId = null;
+            contained = null;
+            fromWorld = null;
+            toWorld = null;
+            sink = null;
+        }
+
+        private void visitContained(NearCacheManager.CachedNearResult entry, NearPlayerManager.PlayerDistance pd) {
+            double dx = tx - pd.x();
+            double dz = tz - pd.z();
+
+            if ((flags & entry.region.hiddenMask()) != 0
+                    || !entry.region.contains(toWorld, tx, ty, tz)
+                    || dx * dx + dz * dz > moveThresholdSq) {
+                sink.accept(entry);
+            }
+        }
+
+        private void visitEntering(NearCacheManager.CachedNearResult entry) {
+            if (entry.result.overflow() || entry.viewerId.equals(targetId)) return;
+            if ((flags & entry.region.hiddenMask()) != 0) return;
+            if (contained != null && contained.containsKey(entry)) return;
+            if (entry.region.contains(toWorld, tx, ty, tz)) sink.accept(entry);
+        }
+
+        private void visitLeaving(NearCacheManager.CachedNearResult entry) {
+            if (!entry.result.overflow() || entry.viewerId.equals(targetId)) return;
+            if (!entry.region.contains(fromWorld, fx, fy, fz)) return;
+            if ((flags & entry.region.hiddenMask()) != 0 || !entry.region.contains(toWorld, tx, ty, tz)) {
+                sink.accept(entry);
+            }
+        }
+    }
+
+    private static final class WorldRegions {
+
+        private final Set<NearCacheManager.CachedNearResult> wide = ConcurrentHashMap.newKeySet();
+        @SuppressWarnings("unchecked")
+        private final Map<Long, Set<NearCacheManager.CachedNearResult>>[] levels = new Map[LEVEL_SHIFTS.length];
+
+        private WorldRegions() {
+            for (int i = 0; i < levels.length; i++) {
+                levels[i] = new ConcurrentHashMap<>();
+            }
+        }
+
+        private void link(NearCacheManager.CachedNearResult entry) {
+            int level = chooseLevel(entry.region);
+            if (level < 0) {
+                wide.add(entry);
+                return;
+            }
+
+            forEachCell(entry.region, level, key ->
+                    levels[level].computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(entry));
+        }
+
+        private void unlink(NearCacheManager.CachedNearResult entry) {
+            int level = chooseLevel(entry.region);
+            if (level < 0) {
+                wide.remove(entry);
+                return;
+            }
+
+            forEachCell(entry.region, level, key -> levels[level].computeIfPresent(key, (k, cell) -> {
+                cell.remove(entry);
+                return cell.isEmpty() ? null : cell;
+            }));
+        }
+
+        private void forEachAt(double x, double z, Consumer<NearCacheManager.CachedNearResult> action) {
+            int blockX = (int) Math.floor(x);
+            int blockZ = (int) Math.floor(z);
+
+            for (int i = 0; i < levels.length; i++) {
+                if (levels[i].isEmpty()) continue;
+                Set<NearCacheManager.CachedNearResult> cell =
+                        levels[i].get(SpatialGridManager.pack(blockX >> LEVEL_SHIFTS[i], blockZ >> LEVEL_SHIFTS[i]));
+                if (cell != null) cell.forEach(action);
+            }
+            wide.forEach(action);
+        }
+
+        private static int chooseLevel(NearCacheManager.QueryRegion region) {
+            for (int level = 0; level < LEVEL_SHIFTS.length; level++) {
+                int shift = LEVEL_SHIFTS[level];
+                long spanX = ((int) Math.floor(region.x() + region.radius()) >> shift)
+                        - ((int) Math.floor(region.x() - region.radius()) >> shift) + 1L;
+                long spanZ = ((int) Math.floor(region.z() + region.radius()) >> shift)
+                        - ((int) Math.floor(region.z() - region.radius()) >> shift) + 1L;
+                if (spanX * spanZ <= MAX_REGION_CELLS) return level;
+            }
+            return -1;
+        }
+
+        private static void forEachCell(NearCacheManager.QueryRegion region, int level,
+                                        LongConsumer action) {
+            int shift = LEVEL_SHIFTS[level];
+            int minX = (int) Math.floor(region.x() - region.radius()) >> shift;
+            int maxX = (int) Math.floor(region.x() + region.radius()) >> shift;
+            int minZ = (int) Math.floor(region.z() - region.radius()) >> shift;
+            int maxZ = (int) Math.floor(region.z() + region.radius()) >> shift;
+
+            for (int cx = minX; cx <= maxX; cx++) {
+                for (int cz = minZ; cz <= maxZ; cz++) {
+                    action.accept(SpatialGridManager.pack(cx, cz));
+                }
+            }
+        }
+    }
+}
@@ -2,26 +2,30 @@ package org.gw.nearmanager.managers;
 
 import lombok.Getter;
 import net.kyori.adventure.bossbar.BossBar;
-import net.kyori.adventure.title.Title;
-import org.bukkit.Bukkit;
-import org.bukkit.Sound;
 import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.gw.nearmanager.NearManager;
-import org.gw.nearmanager.utils.HexColors;
+import org.gw.nearmanager.actions.ActionContext;
+import org.gw.nearmanager.actions.ActionExecutor;
+import org.gw.nearmanager.actions.Actions;
+import org.gw.nearmanager.utils.ComponentTemplate;
+import org.gw.nearmanager.utils.Direction;
+import org.gw.nearmanager.utils.FragmentPool;
 
 import java.io.File;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
-import java.time.Duration;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 @Getter
@@ -30,8 +34,7 @@ public final class ConfigManager {
     private final NearManager plugin;
     private FileConfiguration config;
 
-    private final Map<String, List<ParsedAction>> parsedActions = new ConcurrentHashMap<>();
-    private final java.util.Map<String, String> directions = new java.util.HashMap<>();
+    private final Map<String, List<ActionExecutor>> parsedActions = new ConcurrentHashMap<>();
 
     private boolean consoleLogsEnabled = true;
 
@@ -41,6 +44,17 @@ public final class ConfigManager {
     private boolean hideVanished;
     private boolean ignoredPlayersEnabled;
     private List<String> ignoredPlayers;
+    private Set<String> ignoredPlayerNames = Set.of();
+    private int eligibilitySweepInterval;
+    private int positionSnapshotInterval;
+    private boolean asyncNearEnabled;
+    private int asyncNearThreads;
+    private long nearCacheTtl;
+    private int nearCacheMaxEntries;
+    private int nearCacheMaxPlayers;
+    private String nearCacheRadiusPolicy;
+    private double nearCacheWidenFactor;
+    private double nearCacheMoveThreshold;
     private boolean customRadiusEnabled;
     private int customRadiusMin;
     private int customRadiusMax;
@@ -48,11 +62,18 @@ public final class ConfigManager {
     private int maxPlayers;
     private boolean nearRadiusGroupsEnabled;
     private final Map<String, Integer> nearRadiusGroups = new HashMap<>();
+    private boolean nearRadiusMetaEnabled;
+    private String nearRadiusMetaKey;
     private boolean bossBarEnabled;
     private String bossBarColor;
     private String bossBarStyle;
     private String bossBarText;
     private int bossBarUpdateInterval;
+    private boolean bossBarAdaptiveIntervalEnabled;
+    private int bossBarMinInterval;
+    private int bossBarMaxInterval;
+    private double bossBarMaxApproachSpeed;
+    private int bossBarEffectsPerTick;
     private boolean bossBarMinDistanceEnabled;
     private int bossBarMinDistance;
     private boolean bossBarMaxDistanceEnabled;
@@ -76,7 +97,8 @@ public final class ConfigManager {
 
     private transient ThreadLocal<java.text.DecimalFormat> activeFormatter;
 
-    private record ParsedAction(String type, String content) {}
+    private ComponentTemplate bossBarTemplate;
+    private FragmentPool fragmentPool;
 
     public ConfigManager(NearManager plugin) {
         this.plugin = plugin;
@@ -104,13 +126,13 @@ public final class ConfigManager {
         blockDeclensionOther = config.getString("settings.block-declension.other", "блоках");
         consoleLogsEnabled = config.getBoolean("settings.console-logs.enabled", true);
 
-        directions.clear();
+        String[] glyphs = new String[Direction.count()];
         ConfigurationSection dirSec = config.getConfigurationSection("settings.directions");
-        if (dirSec != null) {
-            for (String key : dirSec.getKeys(false)) {
-                directions.put(key.toLowerCase(), dirSec.getString(key, ""));
-            }
+        for (Direction direction : Direction.values()) {
+            glyphs[direction.ordinal()] = dirSec != null ? dirSec.getString(direction.key(), "⬆") : "⬆";
         }
+        fragmentPool = new FragmentPool(this::format, Math.max(customRadiusMax, bossBarMaxDistance),
+                blockDeclensionOne, blockDeclensionOther, glyphs);
     }
 
     public boolean reload() {
@@ -133,30 +155,19 @@ public final class ConfigManager {
         for (String key : section.getKeys(true)) {
             if (section.isList(key)) {
                 List<String> rawList = section.getStringList(key);
-                List<ParsedAction> parsedList = new ArrayList<>(rawList.size());
+                List<ActionExecutor> parsedList = new ArrayList<>(rawList.size());
 
                 for (String line : rawList) {
-                    ParsedAction pa = parseActionLine(line);
-                    if (pa != null) {
-                        parsedList.add(pa);
+                    ActionExecutor executor = Actions.compile(plugin, line);
+                    if (executor != null) {
+                        parsedList.add(executor);
                     }
                 }
-                parsedActions.put(key, parsedList);
+                parsedActions.put(key, List.copyOf(parsedList));
             }
         }
     }
 
-    private ParsedAction parseActionLine(String line) {
-        if (line == null || line.isEmpty() || !line.startsWith("[")) return null;
-
-        int end = line.indexOf("]");
-        if (end == -1) return null;
-
-        String type = line.substring(1, end).toLowerCase().trim();
-        String content = line.substring(end + 1).trim();
-        return new ParsedAction(type, content);
-    }
-
     private void cacheHotSettings() {
         bStatsEnabled = config.getBoolean("bstats.enabled", true);
         defaultRadius = config.getInt("settings.default-radius-without-permission.radius", 100);
@@ -165,9 +176,24 @@ public final class ConfigManager {
         nearCooldownTime = config.getInt("settings.near-cooldown.time", 5);
 
         hideVanished = config.getBoolean("settings.hide-vanished-players.enabled", true);
+        eligibilitySweepInterval = config.getInt("settings.hide-vanished-players.sweep-interval", 100);
+        positionSnapshotInterval = config.getInt("settings.position-snapshot.interval", 1);
+        asyncNearEnabled = config.getBoolean("settings.async-near.enabled", false);
+        asyncNearThreads = config.getInt("settings.async-near.threads", 2);
+        nearCacheTtl = Math.max(0L, config.getLong("settings.near-cache.ttl", 5000L));
+        nearCacheMaxEntries = Math.max(1, config.getInt("settings.near-cache.max-entries", 1000));
+        nearCacheMaxPlayers = Math.max(1, config.getInt("settings.near-cache.max-players", 20000));
+        nearCacheRadiusPolicy = config.getString("settings.near-cache.radius-policy", "exact").toLowerCase();
+        nearCacheWidenFactor = Math.max(1.0, config.getDouble("settings.near-cache.widen-factor", 2.0));
+        nearCacheMoveThreshold = Math.max(0.0, config.getDouble("settings.near-cache.move-threshold", 4.0));
 
         ignoredPlayersEnabled = config.getBoolean("settings.ignored-players.enabled", false);
         ignoredPlayers = config.getStringList("settings.ignored-players.players");
+        Set<String> names = new HashSet<>();
+        for (String name : ignoredPlayers) {
+            names.add(name.toLowerCase(Locale.ROOT));
+        }
+        ignoredPlayerNames = names;
 
         customRadiusEnabled = config.getBoolean("settings.custom-radius-selection.enabled", true);
         customRadiusMin = config.getInt("settings.custom-radius-selection.min-radius", 0);
@@ -185,12 +211,21 @@ public final class ConfigManager {
             }
         }
 
+        nearRadiusMetaEnabled = config.getBoolean("settings.near-radius-meta.enabled", false);
+        nearRadiusMetaKey = config.getString("settings.near-radius-meta.key", "near-radius");
+
         bossBarEnabled = config.getBoolean("settings.bossbar.enabled", true);
         bossBarColor = config.getString("settings.bossbar.color", "YELLOW");
         bossBarStyle = config.getString("settings.bossbar.style", "NOTCHED_6");
         bossBarText = config.getString("settings.bossbar.text",
                 "&#FFFF00◆ &fИгрок &#FFFF00{player} &fнаходится в &#FFFF00{distance} &fблока(ах) &#FFFF00({direction})");
+        bossBarTemplate = ComponentTemplate.compile(bossBarText, "player", "distance", "direction", "blocks-word-format");
         bossBarUpdateInterval = config.getInt("settings.bossbar.update-interval", 5);
+        bossBarAdaptiveIntervalEnabled = config.getBoolean("settings.bossbar.adaptive-interval.enabled", true);
+        bossBarMinInterval = Math.max(1, config.getInt("settings.bossbar.adaptive-interval.min-interval", 2));
+        bossBarMaxInterval = Math.max(bossBarMinInterval, config.getInt("settings.bossbar.adaptive-interval.max-interval", 20));
+        bossBarMaxApproachSpeed = Math.max(0.01, config.getDouble("settings.bossbar.adaptive-interval.max-approach-speed", 0.8));
+        bossBarEffectsPerTick = Math.max(1, config.getInt("settings.bossbar.effects-per-tick", 64));
 
         bossBarMinDistanceEnabled = config.getBoolean("settings.bossbar.min-distance.enabled", true);
         bossBarMinDistance = config.getInt("settings.bossbar.min-distance.distance", 15);
@@ -274,109 +309,28 @@ public final class ConfigManager {
     }
 
     public void executeActions(CommandSender sender, String path, Map<String, String> placeholders, Runnable nearListInjector) {
-        List<ParsedAction> actionList = parsedActions.get(path);
+        List<ActionExecutor> actionList = parsedActions.get(path);
         if (actionList == null || actionList.isEmpty()) return;
 
-        Map<String, String> ph = new HashMap<>(placeholders != null ? placeholders : Map.of());
-        if (sender != null && !ph.containsKey("player")) {
-            ph.put("player", sender.getName());
-        }
-
-        Player player = (sender instanceof Player p) ? p : null;
-
-        for (ParsedAction action : actionList) {
-            String originalContent = action.content();
-            String content = originalContent;
-            for (Map.Entry<String, String> entry : ph.entrySet()) {
-                content = content.replace("{" + entry.getKey() + "}", entry.getValue());
-            }
-
-            if (originalContent.contains("{near-players}") && nearListInjector != null) {
-                nearListInjector.run();
-                continue;
-            }
-
-            if (player != null) {
-                content = org.gw.nearmanager.utils.PlaceholderAPIHook.parse(player, content);
-            }
-
+        ActionContext context = ActionContext.of(sender, placeholders, nearListInjector);
+        for (ActionExecutor action : actionList) {
             try {
-                switch (action.type()) {
-                    case "message" -> {
-                        if (sender != null) sender.sendMessage(HexColors.translateToComponent(content));
-                    }
-                    case "message-console" -> plugin.console(content);
-                    case "broadcast" -> Bukkit.broadcastMessage(HexColors.translate(content));
-                    case "sound" -> {
-                        if (player != null) playSound(player, content);
-                    }
-                    case "title" -> {
-                        if (player != null) showTitle(player, content, false);
-                    }
-                    case "subtitle" -> {
-                        if (player != null) showTitle(player, content, true);
-                    }
-                    case "actionbar" -> {
-                        if (player != null) player.sendActionBar(HexColors.translateToComponent(content));
-                    }
-                    case "console-command" -> Bukkit.dispatchCommand(Bukkit.getConsoleSender(), content);
-                    case "player-command" -> {
-                        if (player != null) player.performCommand(content);
-                    }
-                    default -> plugin.error("Неизвестный тип действия: [" + action.type() + "]");
-                }
+                action.execute(context);
             } catch (Exception e) {
                 plugin.error("Ошибка выполнения действия [" + action.type() + "]: " + e.getMessage());
             }
         }
     }
 
-    private void playSound(Player player, String data) {
-        try {
-            String[] parts = data.split(" ");
-            Sound sound = Sound.valueOf(parts[0].toUpperCase());
-            float volume = parts.length > 1 ? Float.parseFloat(parts[1]) : 1.0f;
-            float pitch = parts.length > 2 ? Float.parseFloat(parts[2]) : 1.0f;
-            player.playSound(player.getLocation(), sound, volume, pitch);
-        } catch (Exception e) {
-            plugin.error("Ошибка воспроизведения звука: " + data);
-        }
-    }
-
-    private void showTitle(Player player, String data, boolean isSubtitle) {
-        try {
-            String[] parts = data.split(";", 4);
-            String main = parts.length > 0 ? parts[0] : "";
-            String sub = parts.length > 1 ? parts[1] : "";
-            int fadeIn = parts.length > 2 ? Integer.parseInt(parts[2]) : 10;
-            int stay = parts.length > 3 ? Integer.parseInt(parts[3]) : 70;
-
-            Title title = Title.title(
-                    HexColors.translateToComponent(main),
-                    HexColors.translateToComponent(sub),
-                    Title.Times.times(
-                            Duration.ofMillis(fadeIn * 50L),
-                            Duration.ofMillis(stay * 50L),
-                            Duration.ofMillis(500)
-                    )
-            );
-            player.showTitle(title);
-        } catch (Exception e) {
-            plugin.error("Ошибка показа тайтла: " + data);
-        }
-    }
-
     public String getBlockDeclension(int number) {
-        if (number <= 0) {
-            return blockDeclensionOther;
-        }
-        if (number % 10 == 1 && number % 100 != 11) {
-            return blockDeclensionOne;
-        }
-        return blockDeclensionOther;
+        return fragmentPool.declensionText(number);
     }
 
     public String formatNumber(int number) {
+        return fragmentPool.distanceText(number);
+    }
+
+    private String format(int number) {
         if (activeFormatter == null) {
             return String.valueOf(number);
         }
@@ -387,7 +341,7 @@ public final class ConfigManager {
         return useMinDistanceAsZero;
     }
 
-    public String getDirection(String key) {
-        return directions.getOrDefault(key.toLowerCase(), "⬆");
+    public String getDirection(Direction direction) {
+        return fragmentPool.directionText(direction);
     }
 }
\ No newline at end of file
@@ -0,0 +1,194 @@
+package org.gw.nearmanager.managers;
+
+import org.bukkit.Bukkit;
+import org.bukkit.GameMode;
+import org.bukkit.entity.Player;
+import org.bukkit.event.Event;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.entity.EntityPotionEffectEvent;
+import org.bukkit.event.player.PlayerGameModeChangeEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.metadata.MetadataValue;
+import org.bukkit.potion.PotionEffectType;
+import org.bukkit.scheduler.BukkitTask;
+import org.gw.nearmanager.NearManager;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+public final class EligibilityManager implements Listener {
+
+    public static final int SPECTATOR = 1;
+    public static final int NPC = 1 << 1;
+    public static final int VANISHED = 1 << 2;
+    public static final int IGNORED = 1 << 3;
+    public static final int INVISIBLE = 1 << 4;
+    public static final int UNRESOLVED = 1 << 5;
+
+    private static final Set<String> VANISH_METADATA_KEYS = Set.of(
+            "vanished", "cmi_vanished", "pv_vanished",
+            "advancedvanish_vanished", "supervanish_vanished",
+            "vanish", "isVanished", "hidden", "isHidden"
+    );
+
+    private static final List<String> VANISH_EVENT_CLASSES = List.of(
+            "de.myzelyam.api.vanish.PlayerHideEvent",
+            "de.myzelyam.api.vanish.PlayerShowEvent",
+            "net.ess3.api.events.VanishStatusChangeEvent",
+            "com.Zrips.CMI.events.CMIPlayerVanishEvent",
+            "com.Zrips.CMI.events.CMIPlayerUnVanishEvent"
+    );
+
+    private final NearManager plugin;
+    private final ConfigManager configManager;
+    private final SpatialGridManager spatialGridManager;
+    private final RadiusManager radiusManager;
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+
+    private BukkitTask sweepTask;
+    private Consumer<TrackedPlayer> changeListener;
+
+    public EligibilityManager(NearManager plugin, ConfigManager configManager, SpatialGridManager spatialGridManager,
+                              RadiusManager radiusManager) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.spatialGridManager = spatialGridManager;
+        this.radiusManager = radiusManager;
+
+        registerVanishHooks();
+        refreshAll();
+        startSweepTask();
+    }
+
+    public int getHiddenMask(Player viewer) {
+        int mask = SPECTATOR | NPC | UNRESOLVED;
+        if (configManager.isIgnoredPlayersEnabled()) {
+            mask |= IGNORED;
+        }
+        if (configManager.isHideVanished() && !radiusManager.hasFlag(viewer, RadiusManager.BYPASS_VANISH)) {
+            mask |= VANISHED | INVISIBLE;
+        }
+        return mask;
+    }
+
+    public void setChangeListener(Consumer<TrackedPlayer> changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    public void refresh(Player player) {
+        if (player == null) return;
+        TrackedPlayer entry = spatialGridManager.get(player.getUniqueId());
+        if (entry != null) {
+            apply(entry);
+        }
+    }
+
+    public void refreshAll() {
+        for (TrackedPlayer entry : spatialGridManager.getTracked()) {
+            apply(entry);
+        }
+    }
+
+    private void apply(TrackedPlayer entry) {
+        int flags = computeFlags(entry.getPlayer());
+        int previous = entry.flags;
+        entry.flags = flags;
+
+        if (previous != flags && changeListener != null) {
+            changeListener.accept(entry);
+        }
+    }
+
+    public void restart() {
+        shutdown();
+        refreshAll();
+        startSweepTask();
+    }
+
+    public void shutdown() {
+        if (sweepTask != null) {
+            sweepTask.cancel();
+            sweepTask = null;
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        spatialGridManager.track(player);
+        refresh(player);
+        refreshLater(player);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onGameModeChange(PlayerGameModeChangeEvent event) {
+        refreshLater(event.getPlayer());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void onPotionEffect(EntityPotionEffectEvent event) {
+        if (event.getEntity() instanceof Player player && PotionEffectType.INVISIBILITY.equals(event.getModifiedType())) {
+            refreshLater(player);
+        }
+    }
+
+    private int computeFlags(Player player) {
+        int flags = 0;
+        if (player.getGameMode() == GameMode.SPECTATOR) flags |= SPECTATOR;
+        if (player.hasMetadata("NPC")) flags |= NPC;
+        if (player.isInvisible()) flags |= INVISIBLE;
+        if (hasVanishMetadata(player)) flags |= VANISHED;
+        if (configManager.isIgnoredPlayersEnabled() &&
+                configManager.getIgnoredPlayerNames().contains(player.getName().toLowerCase(Locale.ROOT))) {
+            flags |= IGNORED;
+        }
+        return flags;
+    }
+
+    private boolean hasVanishMetadata(Player player) {
+        for (String key : VANISH_METADATA_KEYS) {
+            for (MetadataValue meta : player.getMetadata(key)) {
+                if (meta.asBoolean()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void refreshLater(Player player) {
+        Bukkit.getScheduler().runTask(plugin, () -> refresh(player));
+    }
+
+    private void scheduleRefreshAll() {
+        if (refreshScheduled.compareAndSet(false, true)) {
+            Bukkit.getScheduler().runTask(plugin, () -> {
+                refreshScheduled.set(false);
+                refreshAll();
+            });
+        }
+    }
+
+    private void startSweepTask() {
+        int interval = configManager.getEligibilitySweepInterval();
+        if (interval <= 0) return;
+        sweepTask = Bukkit.getScheduler().runTaskTimer(plugin, this::refreshAll, interval, interval);
+    }
+
+    private void registerVanishHooks() {
+        for (String className : VANISH_EVENT_CLASSES) {
+            try {
+                Class<? extends Event> eventClass = Class.forName(className).asSubclass(Event.class);
+                Bukkit.getPluginManager().registerEvent(eventClass, this, EventPriority.MONITOR,
+                        (listener, event) -> scheduleRefreshAll(), plugin, true);
+                plugin.log("Подключено отслеживание невидимости через событие &#FFFF00" + eventClass.getSimpleName());
+            } catch (ClassNotFoundException | ClassCastException | LinkageError ignored) {
+            }
+        }
+    }
+}
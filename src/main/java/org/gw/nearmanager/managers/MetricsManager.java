@@ -0,0 +1,108 @@
+package org.gw.nearmanager.managers;
+
+import org.bukkit.Bukkit;
+import org.gw.nearmanager.utils.LatencyHistogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public final class MetricsManager {
+
+    private final LatencyHistogram[] timers = new LatencyHistogram[Timer.values().length];
+    private final LongAdder[] counters = new LongAdder[Counter.values().length];
+    private final LongAdder mainThreadNanos = new LongAdder();
+    private final LongAdder asyncNanos = new LongAdder();
+    private volatile long since = System.currentTimeMillis();
+
+    public MetricsManager() {
+        for (int i = 0; i < timers.length; i++) {
+            timers[i] = new LatencyHistogram();
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+    }
+
+    public long start() {
+        return System.nanoTime();
+    }
+
+    public void record(Timer timer, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        timers[timer.ordinal()].record(elapsed);
+
+        if (timer.stage) {
+            (Bukkit.isPrimaryThread() ? mainThreadNanos : asyncNanos).add(elapsed);
+        }
+    }
+
+    public void increment(Counter counter) {
+        counters[counter.ordinal()].increment();
+    }
+
+    public void add(Counter counter, long amount) {
+        if (amount > 0) counters[counter.ordinal()].add(amount);
+    }
+
+    public LatencyHistogram.Snapshot snapshot(Timer timer) {
+        return timers[timer.ordinal()].snapshot();
+    }
+
+    public long count(Counter counter) {
+        return counters[counter.ordinal()].sum();
+    }
+
+    public long getMainThreadNanos() {
+        return mainThreadNanos.sum();
+    }
+
+    public long getAsyncNanos() {
+        return asyncNanos.sum();
+    }
+
+    public long getSince() {
+        return since;
+    }
+
+    public void reset() {
+        for (LatencyHistogram timer : timers) {
+            timer.reset();
+        }
+        for (LongAdder counter : counters) {
+            counter.reset();
+        }
+        mainThreadNanos.reset();
+        asyncNanos.reset();
+        since = System.currentTimeMillis();
+    }
+
+    public enum Timer {
+        NEAR_TOTAL("/near целиком", false),
+        NEAR_SCAN("Поиск игроков", true),
+        NEAR_RENDER("Отрисовка списка", true),
+        BOSSBAR_TICK("Тик боссбаров", true),
+        BOSSBAR_WORKER("Обновление боссбаров", true);
+
+        private final String displayName;
+        private final boolean stage;
+
+        Timer(String displayName, boolean stage) {
+            this.displayName = displayName;
+            this.stage = stage;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
+    public enum Counter {
+        NEAR_CACHE_HIT,
+        NEAR_CACHE_MISS,
+        NEAR_CACHE_EVICTION,
+        RADIUS_CACHE_HIT,
+        RADIUS_CACHE_MISS,
+        RADIUS_CACHE_EVICTION,
+        BOSSBAR_UPDATED,
+        BOSSBAR_SKIPPED
+    }
+}
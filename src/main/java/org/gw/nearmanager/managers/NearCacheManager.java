@@ -1,65 +1,210 @@
 package org.gw.nearmanager.managers;
 
-import org.bukkit.entity.Player;
+import org.bukkit.Location;
 
-import java.util.ArrayList;
-import java.util.LinkedHashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 public final class NearCacheManager {
 
-    private final Map<String, CachedNearResult> cache;
+    private final ConfigManager configManager;
+    private final MetricsManager metricsManager;
 
-    private static final long CACHE_TTL = 1500L;
-    private static final int MAX_CACHE_SIZE = 200;
+    private final Map<CacheKey, CachedNearResult> cache = new ConcurrentHashMap<>();
+    private final Map<UUID, Set<CacheKey>> viewerIndex = new ConcurrentHashMap<>();
+    private final Queue<CachedNearResult> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger totalPlayers = new AtomicInteger();
+    private final CacheDependencyIndex dependencyIndex = new CacheDependencyIndex();
+    private final Consumer<CachedNearResult> discarder = this::discard;
 
-    public NearCacheManager() {
-        this.cache = new LinkedHashMap<>(MAX_CACHE_SIZE, 0.75f, true) {
-            @Override
-            protected boolean removeEldestEntry(Map.Entry<String, CachedNearResult> eldest) {
-                return size() > MAX_CACHE_SIZE;
-            }
-        };
+    public NearCacheManager(ConfigManager configManager, MetricsManager metricsManager) {
+        this.configManager = configManager;
+        this.metricsManager = metricsManager;
     }
 
-    public List<NearPlayerManager.PlayerDistance> getCached(Player viewer, int radius) {
-        if (viewer == null) return null;
+    public NearPlayerManager.NearResult getCached(UUID viewerId, UUID worldId, int radius) {
+        if (viewerId == null) return null;
+
+        NearPlayerManager.NearResult result = lookup(viewerId, worldId, radius);
+        metricsManager.increment(result != null ? MetricsManager.Counter.NEAR_CACHE_HIT : MetricsManager.Counter.NEAR_CACHE_MISS);
+        return result;
+    }
+
+    private NearPlayerManager.NearResult lookup(UUID viewerId, UUID worldId, int radius) {
+        long now = System.currentTimeMillis();
+        long ttl = configManager.getNearCacheTtl();
+
+        CachedNearResult exact = cache.get(CacheKey.of(viewerId, worldId, radius));
+        if (exact != null) {
+            if (now - exact.timestamp < ttl) return exact.result;
+            discard(exact);
+            metricsManager.increment(MetricsManager.Counter.NEAR_CACHE_EVICTION);
+        }
+
+        Set<CacheKey> keys = viewerIndex.get(viewerId);
+        if (keys == null) return null;
+
+        CachedNearResult wider = null;
+        for (CacheKey key : keys) {
+            if (!key.isWorld(worldId)) continue;
 
-        String key = buildKey(viewer, radius);
-        CachedNearResult cached = cache.get(key);
+            CachedNearResult entry = cache.get(key);
+            if (entry == null || now - entry.timestamp >= ttl) continue;
 
-        if (cached != null) {
-            if (System.currentTimeMillis() - cached.timestamp() < CACHE_TTL) {
-                return cached.players();
+            if (entry.result.overflow()) {
+                if (key.radius() <= radius) return entry.result;
+            } else if (key.radius() > radius && (wider == null || key.radius() < wider.key.radius())) {
+                wider = entry;
             }
-            cache.remove(key);
         }
-        return null;
+        return wider != null ? wider.result.narrow(radius) : null;
     }
 
-    public void put(Player viewer, int radius, List<NearPlayerManager.PlayerDistance> players) {
-        if (viewer == null || players == null || players.isEmpty()) return;
+    public void put(UUID viewerId, QueryRegion region, NearPlayerManager.NearResult result) {
+        if (viewerId == null || region == null || result == null || result.isEmpty()) return;
 
-        String key = buildKey(viewer, radius);
-        cache.put(key, new CachedNearResult(new ArrayList<>(players), System.currentTimeMillis()));
+        CacheKey key = CacheKey.of(viewerId, region.worldId(), region.radius());
+        CachedNearResult entry = new CachedNearResult(key, viewerId, region, result, System.currentTimeMillis());
+
+        cache.compute(key, (k, previous) -> {
+            dependencyIndex.register(entry);
+            if (previous != null) {
+                totalPlayers.addAndGet(-previous.weight());
+                dependencyIndex.unregister(previous);
+            } else {
+                viewerIndex.computeIfAbsent(viewerId, id -> ConcurrentHashMap.newKeySet()).add(k);
+            }
+            totalPlayers.addAndGet(entry.weight());
+            return entry;
+        });
+        insertionOrder.add(entry);
+        evict();
     }
 
     public void invalidate(UUID viewerId) {
         if (viewerId == null) return;
 
-        String prefix = viewerId.toString() + ":";
-        cache.keySet().removeIf(key -> key.startsWith(prefix));
+        Set<CacheKey> keys = viewerIndex.remove(viewerId);
+        if (keys == null) return;
+
+        for (CacheKey key : keys) {
+            cache.computeIfPresent(key, (k, current) -> {
+                totalPlayers.addAndGet(-current.weight());
+                dependencyIndex.unregister(current);
+                return null;
+            });
+        }
+    }
+
+    public void onTargetChanged(UUID targetId, int flags, Location from, Location to) {
+        if (targetId == null || cache.isEmpty()) return;
+
+        UUID fromWorld = from != null && from.getWorld() != null ? from.getWorld().getUID() : null;
+        UUID toWorld = to != null && to.getWorld() != null ? to.getWorld().getUID() : null;
+
+        double threshold = configManager.getNearCacheMoveThreshold();
+        dependencyIndex.forEachAffected(targetId, flags, threshold * threshold,
+                fromWorld, fromWorld != null ? from.getX() : 0.0, fromWorld != null ? from.getY() : 0.0,
+                fromWorld != null ? from.getZ() : 0.0,
+                toWorld, toWorld != null ? to.getX() : 0.0, toWorld != null ? to.getY() : 0.0,
+                toWorld != null ? to.getZ() : 0.0, discarder);
     }
 
     public void clear() {
         cache.clear();
+        viewerIndex.clear();
+        insertionOrder.clear();
+        dependencyIndex.clear();
+        totalPlayers.set(0);
     }
 
-    private String buildKey(Player viewer, int radius) {
-        return viewer.getUniqueId() + ":" + radius + ":" + viewer.getWorld().getUID();
+    private void evict() {
+        long now = System.currentTimeMillis();
+        long ttl = configManager.getNearCacheTtl();
+
+        CachedNearResult head;
+        while ((head = insertionOrder.peek()) != null) {
+            boolean live = cache.get(head.key) == head;
+            if (live && now - head.timestamp < ttl && !isOverCapacity()) return;
+
+            CachedNearResult polled = insertionOrder.poll();
+            if (polled == null) continue;
+
+            if (live && polled == head) metricsManager.increment(MetricsManager.Counter.NEAR_CACHE_EVICTION);
+            discard(polled);
+        }
+    }
+
+    private boolean isOverCapacity() {
+        return cache.size() > configManager.getNearCacheMaxEntries()
+                || totalPlayers.get() > configManager.getNearCacheMaxPlayers();
+    }
+
+    private void discard(CachedNearResult entry) {
+        cache.computeIfPresent(entry.key, (key, current) -> {
+            if (current != entry) return current;
+
+            totalPlayers.addAndGet(-entry.weight());
+            dependencyIndex.unregister(entry);
+            viewerIndex.computeIfPresent(entry.viewerId, (id, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+            return null;
+        });
+    }
+
+    private record CacheKey(long viewerMost, long viewerLeast, long worldMost, long worldLeast, int radius) {
+        private static CacheKey of(UUID viewerId, UUID worldId, int radius) {
+            return worldId != null
+                    ? new CacheKey(viewerId.getMostSignificantBits(), viewerId.getLeastSignificantBits(),
+                    worldId.getMostSignificantBits(), worldId.getLeastSignificantBits(), radius)
+                    : new CacheKey(viewerId.getMostSignificantBits(), viewerId.getLeastSignificantBits(), 0L, 0L, radius);
+        }
+
+        private boolean isWorld(UUID worldId) {
+            return worldId != null
+                    ? worldMost == worldId.getMostSignificantBits() && worldLeast == worldId.getLeastSignificantBits()
+                    : worldMost == 0L && worldLeast == 0L;
+        }
+    }
+
+    public record QueryRegion(UUID worldId, double x, double y, double z, int radius, int hiddenMask) {
+        boolean contains(UUID world, double px, double py, double pz) {
+            if (world == null || !world.equals(worldId)) return false;
+
+            double dx = px - x;
+            double dy = py - y;
+            double dz = pz - z;
+            return dx * dx + dy * dy + dz * dz <= (double) radius * radius;
+        }
     }
 
-    private record CachedNearResult(List<NearPlayerManager.PlayerDistance> players, long timestamp) {}
-}
\ No newline at end of file
+    static final class CachedNearResult {
+
+        final CacheKey key;
+        final UUID viewerId;
+        final QueryRegion region;
+        final NearPlayerManager.NearResult result;
+        final long timestamp;
+
+        private CachedNearResult(CacheKey key, UUID viewerId, QueryRegion region, NearPlayerManager.NearResult result,
+                                 long timestamp) {
+            this.key = key;
+            this.viewerId = viewerId;
+            this.region = region;
+            this.result = result;
+            this.timestamp = timestamp;
+        }
+
+        private int weight() {
+            return Math.max(1, result.size());
+        }
+    }
+}
@@ -1,109 +1,210 @@
 package org.gw.nearmanager.managers;
 
 import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.JoinConfiguration;
 import net.kyori.adventure.text.event.ClickEvent;
 import net.kyori.adventure.text.event.HoverEvent;
+import org.bukkit.command.CommandSender;
 import org.bukkit.configuration.ConfigurationSection;
+import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
+import org.gw.nearmanager.utils.ComponentTemplate;
+import org.gw.nearmanager.utils.Direction;
 import org.gw.nearmanager.utils.DirectionUtils;
-import org.gw.nearmanager.utils.HexColors;
+import org.gw.nearmanager.utils.FragmentPool;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Pattern;
 
 public final class NearDisplayManager {
 
+    private static final Component SEPARATOR = Component.text(" ");
+    private static final String[] BUTTON_KEYS = {"inv", "tp", "bb"};
+
     private final ConfigManager configManager;
-    private final List<ButtonDefinition> buttonOrder = new ArrayList<>();
+    private final SpatialGridManager spatialGridManager;
+    private final PositionSnapshotManager positionSnapshotManager;
+    private final MetricsManager metricsManager;
+
+    private volatile NearLayout layout;
 
-    public NearDisplayManager(ConfigManager configManager) {
+    public NearDisplayManager(ConfigManager configManager, SpatialGridManager spatialGridManager,
+                              PositionSnapshotManager positionSnapshotManager, MetricsManager metricsManager) {
         this.configManager = configManager;
+        this.spatialGridManager = spatialGridManager;
+        this.positionSnapshotManager = positionSnapshotManager;
+        this.metricsManager = metricsManager;
+    }
+
+    private NearLayout layout() {
+        FileConfiguration config = configManager.getConfig();
+        NearLayout current = layout;
+        if (current == null || current.config() != config) {
+            current = compileLayout(config);
+            layout = current;
+        }
+        return current;
     }
 
-    private void buildButtonOrder() {
-        String template = configManager.getConfig().getString("actions.near.near-players", "");
-        record ButtonPos(int index, String key) {}
+    private NearLayout compileLayout(FileConfiguration config) {
+        String template = config.getString("actions.near.near-players",
+                "&#FFFF00◆ &f{number}. &#FFFF00{player} &f- в &#FFFF00{blocks} &f{blocks-word-format} &#FFFF00({direction})");
+
+        record ButtonPos(int index, NearButton button) {}
         List<ButtonPos> positions = new ArrayList<>();
+        for (String key : BUTTON_KEYS) {
+            int index = template.indexOf(getButtonPlaceholder(key));
+            ConfigurationSection sec = config.getConfigurationSection(getButtonPath(key));
+            if (index == -1 || sec == null) continue;
+
+            Component base = ComponentTemplate.compile(sec.getString("text", "")).render()
+                    .hoverEvent(HoverEvent.showText(ComponentTemplate.compile(sec.getString("hover-text", "")).render()));
+            String[] command = sec.getString("click-command", "").split(Pattern.quote("{player}"), -1);
+            positions.add(new ButtonPos(index, new NearButton(key, sec.getString("permission"), base, command)));
+        }
+        positions.sort((a, b) -> Integer.compare(a.index(), b.index()));
 
-        int invIdx = template.indexOf("{open-inventory-button}");
-        if (invIdx != -1) positions.add(new ButtonPos(invIdx, "inv"));
+        List<NearButton> buttons = new ArrayList<>(positions.size());
+        for (ButtonPos pos : positions) {
+            buttons.add(pos.button());
+        }
 
-        int tpIdx = template.indexOf("{teleport-button}");
-        if (tpIdx != -1) positions.add(new ButtonPos(tpIdx, "tp"));
+        String line = template
+                .replace("{open-inventory-button}", "")
+                .replace("{teleport-button}", "")
+                .replace("{bossbar-button}", "")
+                .replaceAll(" {2,}", " ");
+        ComponentTemplate lineTemplate = ComponentTemplate.compile("  " + line,
+                "number", "player", "blocks", "direction", "blocks-word-format");
+        return new NearLayout(config, lineTemplate, List.copyOf(buttons));
+    }
 
-        int bbIdx = template.indexOf("{bossbar-button}");
-        if (bbIdx != -1) positions.add(new ButtonPos(bbIdx, "bb"));
+    public ViewContext captureContext(Player viewer) {
+        return new ViewContext(
+                spatialGridManager.get(viewer.getUniqueId()),
+                hasButtonPermission(viewer, "inv"),
+                hasButtonPermission(viewer, "tp"),
+                hasButtonPermission(viewer, "bb")
+        );
+    }
 
-        positions.sort((a, b) -> Integer.compare(a.index, b.index));
+    public ViewContext captureConsoleContext(Player origin) {
+        return new ViewContext(spatialGridManager.get(origin.getUniqueId()), false, false, false);
+    }
 
-        buttonOrder.clear();
-        for (ButtonPos pos : positions) {
-            buttonOrder.add(new ButtonDefinition(pos.key));
-        }
+    public void sendNearList(CommandSender receiver, ViewContext context, NearPlayerManager.NearResult nearby) {
+        Component list = renderNearList(context, nearby);
+        if (list != null) receiver.sendMessage(list);
+    }
+
+    public void sendNearList(Player viewer, NearPlayerManager.NearResult nearby) {
+        sendNearList(viewer, captureContext(viewer), nearby);
+    }
+
+    public Component renderNearList(ViewContext context, NearPlayerManager.NearResult result) {
+        List<NearPlayerManager.PlayerDistance> nearby = result.players();
+        if (context.viewer() == null || nearby.isEmpty()) return null;
+
+        long start = metricsManager.start();
+        Component list = renderLines(context, nearby);
+        metricsManager.record(MetricsManager.Timer.NEAR_RENDER, start);
+        return list;
     }
 
-    public void sendNearList(Player viewer, List<NearPlayerManager.PlayerDistance> nearby) {
-        buildButtonOrder();
+    private Component renderLines(ViewContext context, List<NearPlayerManager.PlayerDistance> nearby) {
+        NearLayout current = layout();
+        FragmentPool fragments = configManager.getFragmentPool();
+        Direction[] directions = resolveDirections(context.viewer(), nearby);
+        List<Component> lines = new ArrayList<>(nearby.size());
+
         for (int i = 0; i < nearby.size(); i++) {
             NearPlayerManager.PlayerDistance pd = nearby.get(i);
-            Player target = pd.getPlayer();
-            if (target == null) continue;
+            if (spatialGridManager.get(pd.uuid()) == null) continue;
 
             int dist = (int) pd.distance();
-            String direction = configManager.getDirection(DirectionUtils.getDirectionKey(
-                    viewer.getLocation().getX(),
-                    viewer.getLocation().getZ(),
-                    viewer.getLocation().getYaw(),
-                    target.getLocation().getX(),
-                    target.getLocation().getZ()
-            ));
-
-            String filled = configManager.getConfig().getString("actions.near.near-players",
-                            "&#FFFF00◆ &f{number}. &#FFFF00{player} &f- в &#FFFF00{blocks} &f{blocks-word-format} &#FFFF00({direction})")
-                    .replace("{number}", String.valueOf(i + 1))
-                    .replace("{player}", pd.name())
-                    .replace("{blocks}", configManager.formatNumber(dist))
-                    .replace("{direction}", direction)
-                    .replace("{blocks-word-format}", configManager.getBlockDeclension(dist))
-                    .replace("{open-inventory-button}", "")
-                    .replace("{teleport-button}", "")
-                    .replace("{bossbar-button}", "")
-                    .replaceAll(" {2,}", " ");
-
-            Component line = HexColors.translateToComponent("  " + filled);
-
-            for (ButtonDefinition def : buttonOrder) {
-                Component button = createButton(def.key, viewer, target);
-                if (button != null) {
-                    line = line.append(Component.text(" ")).append(button);
+            Component line = current.line().renderFragments(fragments.number(i + 1), Component.text(pd.name()),
+                    fragments.distance(dist), fragments.direction(directions[i]), fragments.declension(dist));
+
+            List<Component> parts = null;
+            for (NearButton button : current.buttons()) {
+                if (!context.isButtonAllowed(button.key())) continue;
+                if (parts == null) {
+                    parts = new ArrayList<>(1 + current.buttons().size() * 2);
+                    parts.add(line);
                 }
+                parts.add(SEPARATOR);
+                parts.add(button.render(pd.name()));
             }
 
-            viewer.sendMessage(line);
+            lines.add(parts == null ? line : Component.textOfChildren(parts.toArray(new Component[0])));
         }
+        return lines.isEmpty() ? null : Component.join(JoinConfiguration.newlines(), lines);
     }
 
-    private Component createButton(String key, Player viewer, Player target) {
-        ConfigurationSection sec = switch (key) {
-            case "inv" -> configManager.getConfig().getConfigurationSection("actions.near.open-inventory-button");
-            case "tp" -> configManager.getConfig().getConfigurationSection("actions.near.teleport-button");
-            case "bb" -> configManager.getConfig().getConfigurationSection("actions.near.bossbar-button");
+    private Direction[] resolveDirections(TrackedPlayer viewer, List<NearPlayerManager.PlayerDistance> nearby) {
+        int count = nearby.size();
+        double[] xs = new double[count];
+        double[] zs = new double[count];
+        for (int i = 0; i < count; i++) {
+            NearPlayerManager.PlayerDistance pd = nearby.get(i);
+            xs[i] = pd.x();
+            zs[i] = pd.z();
+        }
+
+        int slot = viewer.getSlot();
+        Direction[] directions = new Direction[count];
+        positionSnapshotManager.read(snapshot -> {
+            DirectionUtils.getDirections(snapshot.getX(slot), snapshot.getZ(slot), snapshot.getYaw(slot),
+                    xs, zs, count, directions);
+            return directions;
+        });
+        return directions;
+    }
+
+    private static String getButtonPlaceholder(String key) {
+        return switch (key) {
+            case "inv" -> "{open-inventory-button}";
+            case "tp" -> "{teleport-button}";
+            case "bb" -> "{bossbar-button}";
             default -> null;
         };
+    }
 
-        if (sec == null) return null;
-
-        String permission = sec.getString("permission");
-        if (permission != null && !viewer.hasPermission(permission)) return null;
+    private static String getButtonPath(String key) {
+        return switch (key) {
+            case "inv" -> "actions.near.open-inventory-button";
+            case "tp" -> "actions.near.teleport-button";
+            case "bb" -> "actions.near.bossbar-button";
+            default -> null;
+        };
+    }
 
-        String text = sec.getString("text", "");
-        String hover = sec.getString("hover-text", "");
-        String cmd = sec.getString("click-command", "").replace("{player}", target.getName());
+    private boolean hasButtonPermission(Player viewer, String key) {
+        for (NearButton button : layout().buttons()) {
+            if (button.key().equals(key)) {
+                return button.permission() == null || viewer.hasPermission(button.permission());
+            }
+        }
+        return false;
+    }
 
-        return HexColors.translateToComponent(text)
-                .hoverEvent(HoverEvent.showText(HexColors.translateToComponent(hover)))
-                .clickEvent(ClickEvent.runCommand(cmd));
+    public record ViewContext(TrackedPlayer viewer, boolean inventoryButton, boolean teleportButton, boolean bossBarButton) {
+        private boolean isButtonAllowed(String key) {
+            return switch (key) {
+                case "inv" -> inventoryButton;
+                case "tp" -> teleportButton;
+                case "bb" -> bossBarButton;
+                default -> false;
+            };
+        }
     }
 
-    private record ButtonDefinition(String key) {}
-}
\ No newline at end of file
+    private record NearLayout(FileConfiguration config, ComponentTemplate line, List<NearButton> buttons) {}
+
+    private record NearButton(String key, String permission, Component base, String[] command) {
+        private Component render(String targetName) {
+            return base.clickEvent(ClickEvent.runCommand(String.join(targetName, command)));
+        }
+    }
+}
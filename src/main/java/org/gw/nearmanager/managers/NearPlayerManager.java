@@ -1,81 +1,151 @@
 package org.gw.nearmanager.managers;
 
 import org.bukkit.Bukkit;
-import org.bukkit.GameMode;
 import org.bukkit.Location;
 import org.bukkit.entity.Player;
-import org.bukkit.metadata.MetadataValue;
 import org.gw.nearmanager.NearManager;
 
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
 public final class NearPlayerManager {
 
-    private static final Set<String> VANISH_METADATA_KEYS = Set.of(
-            "vanished", "cmi_vanished", "pv_vanished",
-            "advancedvanish_vanished", "supervanish_vanished",
-            "vanish", "isVanished", "hidden", "isHidden"
-    );
+    private static final double GRID_MARGIN = 16.0;
+    // Верхняя оценка смещения игрока за тик (элитры с фейерверком) — сетка живая, а снимок отстаёт
+    private static final double MAX_BLOCKS_PER_TICK = 4.0;
 
-    private final NearManager plugin = NearManager.getPlugin(NearManager.class);
+    private final NearManager plugin;
     private final ConfigManager configManager;
     private final RadiusManager radiusManager;
+    private final SpatialGridManager spatialGridManager;
+    private final EligibilityManager eligibilityManager;
+    private final PositionSnapshotManager positionSnapshotManager;
+    private final MetricsManager metricsManager;
     private final NearCacheManager nearCacheManager;
 
     private final Map<UUID, Long> cooldowns = new ConcurrentHashMap<>();
 
-    public NearPlayerManager(ConfigManager configManager, RadiusManager radiusManager) {
+    public NearPlayerManager(NearManager plugin, ConfigManager configManager, RadiusManager radiusManager,
+                             SpatialGridManager spatialGridManager, EligibilityManager eligibilityManager,
+                             PositionSnapshotManager positionSnapshotManager, MetricsManager metricsManager) {
+        this.plugin = plugin;
         this.configManager = configManager;
         this.radiusManager = radiusManager;
-        this.nearCacheManager = new NearCacheManager();
+        this.spatialGridManager = spatialGridManager;
+        this.eligibilityManager = eligibilityManager;
+        this.positionSnapshotManager = positionSnapshotManager;
+        this.metricsManager = metricsManager;
+        this.nearCacheManager = new NearCacheManager(configManager, metricsManager);
     }
 
-    public List<PlayerDistance> getNearbyPlayers(Player viewer, int radius) {
-        if (viewer == null) return List.of();
+    public NearResult getNearbyPlayers(Player viewer, int radius) {
+        NearRequest request = prepareRequest(viewer, radius);
+        return request != null ? getNearbyPlayers(request) : NearResult.EMPTY;
+    }
 
-        List<PlayerDistance> cached = nearCacheManager.getCached(viewer, radius);
-        if (cached != null) return cached;
+    public NearRequest prepareRequest(Player viewer, int radius) {
+        if (viewer == null) return null;
 
-        List<PlayerDistance> result = new ArrayList<>();
+        TrackedPlayer viewerEntry = spatialGridManager.get(viewer.getUniqueId());
+        if (viewerEntry == null) return null;
 
-        Location viewerLoc = viewer.getLocation();
-        Location targetLoc = new Location(null, 0, 0, 0);
-        long radiusSq = (long) radius * radius;
+        int limit = configManager.isMaxPlayersEnabled() ? Math.max(0, configManager.getMaxPlayers()) : Integer.MAX_VALUE;
+        return new NearRequest(viewerEntry, radius, resolveScanRadius(viewer, radius),
+                eligibilityManager.getHiddenMask(viewer), limit);
+    }
 
-        for (Player target : Bukkit.getOnlinePlayers()) {
-            if (target.getUniqueId().equals(viewer.getUniqueId())) continue;
-            if (target.getGameMode() == GameMode.SPECTATOR) continue;
-            if (target.hasMetadata("NPC")) continue;
+    private int resolveScanRadius(Player viewer, int radius) {
+        if (!"widen".equals(configManager.getNearCacheRadiusPolicy())) return radius;
+        if (!configManager.isCustomRadiusEnabled() || !radiusManager.hasFlag(viewer, RadiusManager.CUSTOM_RADIUS)) return radius;
 
-            if (configManager.isHideVanished() && !viewer.hasPermission("nearmanager.near.bypass-vanish")) {
-                if (isVanished(target)) continue;
-            }
+        long widened = (long) Math.ceil(radius * configManager.getNearCacheWidenFactor());
+        return (int) Math.max(radius, Math.min(widened, configManager.getCustomRadiusMax()));
+    }
 
-            if (configManager.isIgnoredPlayersEnabled() &&
-                    configManager.getIgnoredPlayers().stream()
-                            .anyMatch(name -> name.equalsIgnoreCase(target.getName()))) {
-                continue;
-            }
+    public NearResult getNearbyPlayers(NearRequest request) {
+        TrackedPlayer viewerEntry = request.viewer();
+        int radius = request.radius();
 
-            target.getLocation(targetLoc);
-            if (!targetLoc.getWorld().equals(viewerLoc.getWorld())) continue;
+        NearResult cached = nearCacheManager.getCached(viewerEntry.getUuid(), viewerEntry.getWorldId(), radius);
+        if (cached != null) return cached;
 
-            double distSq = viewerLoc.distanceSquared(targetLoc);
-            if (distSq <= radiusSq) {
-                result.add(new PlayerDistance(target.getUniqueId(), target.getName(), Math.sqrt(distSq)));
-            }
+        int scanRadius = request.scanRadius();
+        if (scanRadius > radius) {
+            NearResult widened = scanAndCache(viewerEntry, request, scanRadius);
+            if (!widened.overflow()) return widened.narrow(radius);
         }
 
-        result.sort(Comparator.comparingDouble(PlayerDistance::distance));
-        nearCacheManager.put(viewer, radius, result);
+        return scanAndCache(viewerEntry, request, radius);
+    }
+
+    public void handleTargetMove(Player target, Location from, Location to) {
+        TrackedPlayer entry = spatialGridManager.get(target.getUniqueId());
+        int flags = entry != null ? entry.getFlags() : EligibilityManager.UNRESOLVED;
+        nearCacheManager.onTargetChanged(target.getUniqueId(), flags, from, to);
+    }
+
+    public void handleVisibilityChange(TrackedPlayer target) {
+        Location location = target.getPlayer().getLocation();
+        nearCacheManager.onTargetChanged(target.getUuid(), target.getFlags(), location, location);
+    }
+
+    private NearResult scanAndCache(TrackedPlayer viewerEntry, NearRequest request, int radius) {
+        long start = metricsManager.start();
+        Scan scan = positionSnapshotManager.read(snapshot -> scan(snapshot, viewerEntry, request, radius));
+        metricsManager.record(MetricsManager.Timer.NEAR_SCAN, start);
+        if (scan.region() != null) {
+            nearCacheManager.put(viewerEntry.getUuid(), scan.region(), scan.result());
+        }
+        return scan.result();
+    }
 
-        return result;
+    private double gridMargin() {
+        int interval = Math.max(1, configManager.getPositionSnapshotInterval());
+        return Math.max(GRID_MARGIN, interval * MAX_BLOCKS_PER_TICK);
+    }
+
+    private Scan scan(PositionSnapshot snapshot, TrackedPlayer viewerEntry, NearRequest request, int radius) {
+        int viewerSlot = viewerEntry.getSlot();
+        int world = snapshot.getWorldIndex(viewerSlot);
+        // мир берётся из того же снимка, что и координаты: TrackedPlayer.worldId меняется в главном потоке
+        UUID worldId = positionSnapshotManager.getWorldId(world);
+        if (worldId == null) return new Scan(NearResult.EMPTY, null);
+
+        int hiddenMask = request.hiddenMask();
+        int limit = request.limit();
+
+        double vx = snapshot.getX(viewerSlot);
+        double vy = snapshot.getY(viewerSlot);
+        double vz = snapshot.getZ(viewerSlot);
+        long radiusSq = (long) radius * radius;
+
+        NearCacheManager.QueryRegion region = new NearCacheManager.QueryRegion(
+                worldId, vx, vy, vz, radius, hiddenMask);
+        List<TrackedPlayer> candidates = spatialGridManager.getCandidates(
+                worldId, vx, vz, radius + gridMargin());
+
+        NearestHeap heap = new NearestHeap(Math.min(limit, candidates.size()));
+        for (TrackedPlayer candidate : candidates) {
+            int slot = candidate.getSlot();
+            if (slot == viewerSlot) continue;
+            if (snapshot.getWorldIndex(slot) != world) continue;
+            if ((snapshot.getFlags(slot) & hiddenMask) != 0) continue;
+
+            double x = snapshot.getX(slot);
+            double z = snapshot.getZ(slot);
+            double dx = x - vx;
+            double dy = snapshot.getY(slot) - vy;
+            double dz = z - vz;
+            double distSq = dx * dx + dy * dy + dz * dz;
+            if (distSq > radiusSq) continue;
+
+            if (heap.size() >= limit) return new Scan(NearResult.OVERFLOW, region);
+            heap.offer(candidate, distSq, x, z);
+        }
+
+        return new Scan(heap.isEmpty() ? NearResult.EMPTY : new NearResult(heap.drainSorted(), false), region);
     }
 
     public void invalidateCache(UUID uuid) {
@@ -92,25 +162,8 @@ public final class NearPlayerManager {
         plugin.log("База данных активных задержек команд &#FFFF00успешно &fочищена!");
     }
 
-    private boolean isVanished(Player player) {
-        if (player == null) return false;
-
-        if (player.isInvisible()) {
-            return true;
-        }
-
-        for (String key : VANISH_METADATA_KEYS) {
-            for (MetadataValue meta : player.getMetadata(key)) {
-                if (meta.asBoolean()) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-
     public boolean isOnCooldown(Player player) {
-        if (!configManager.isNearCooldownEnabled() || player.hasPermission("nearmanager.near.bypass-cooldown")) return false;
+        if (!configManager.isNearCooldownEnabled() || radiusManager.hasFlag(player, RadiusManager.BYPASS_COOLDOWN)) return false;
 
         Long last = cooldowns.get(player.getUniqueId());
         return last != null && (System.currentTimeMillis() - last) < (configManager.getNearCooldownTime() * 1000L);
@@ -123,7 +176,7 @@ public final class NearPlayerManager {
     }
 
     public void setCooldown(Player player) {
-        if (configManager.isNearCooldownEnabled() && !player.hasPermission("nearmanager.near.bypass-cooldown")) {
+        if (configManager.isNearCooldownEnabled() && !radiusManager.hasFlag(player, RadiusManager.BYPASS_COOLDOWN)) {
             cooldowns.put(player.getUniqueId(), System.currentTimeMillis());
         }
     }
@@ -135,9 +188,132 @@ public final class NearPlayerManager {
         }
     }
 
-    public record PlayerDistance(UUID uuid, String name, double distance) {
+    private record Scan(NearResult result, NearCacheManager.QueryRegion region) {}
+
+    public record NearRequest(TrackedPlayer viewer, int radius, int scanRadius, int hiddenMask, int limit) {}
+
+    public record NearResult(List<PlayerDistance> players, boolean overflow) {
+        public static final NearResult EMPTY = new NearResult(List.of(), false);
+        public static final NearResult OVERFLOW = new NearResult(List.of(), true);
+
+        public boolean isEmpty() {
+            return !overflow && players.isEmpty();
+        }
+
+        public int size() {
+            return players.size();
+        }
+
+        public NearResult narrow(int radius) {
+            if (overflow) return this;
+
+            int low = 0;
+            int high = players.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (players.get(mid).distance() <= radius) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+
+            if (low == players.size()) return this;
+            return low == 0 ? EMPTY : new NearResult(players.subList(0, low), false);
+        }
+    }
+
+    public record PlayerDistance(UUID uuid, String name, double distance, double x, double z) {
         public Player getPlayer() {
             return Bukkit.getPlayer(uuid);
         }
     }
-}
\ No newline at end of file
+
+    private static final class NearestHeap {
+
+        private final TrackedPlayer[] entries;
+        private final double[] distSq;
+        private final double[] xs;
+        private final double[] zs;
+        private int size;
+
+        private NearestHeap(int capacity) {
+            entries = new TrackedPlayer[capacity];
+            distSq = new double[capacity];
+            xs = new double[capacity];
+            zs = new double[capacity];
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private boolean isEmpty() {
+            return size == 0;
+        }
+
+        private void offer(TrackedPlayer entry, double value, double x, double z) {
+            if (size == entries.length) {
+                if (size == 0 || value >= distSq[0]) return;
+                set(0, entry, value, x, z);
+                siftDown(0, size);
+                return;
+            }
+
+            int i = size++;
+            set(i, entry, value, x, z);
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (distSq[parent] >= distSq[i]) break;
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private List<PlayerDistance> drainSorted() {
+            for (int end = size - 1; end > 0; end--) {
+                swap(0, end);
+                siftDown(0, end);
+            }
+
+            PlayerDistance[] result = new PlayerDistance[size];
+            for (int i = 0; i < size; i++) {
+                TrackedPlayer entry = entries[i];
+                result[i] = new PlayerDistance(entry.getUuid(), entry.getName(), Math.sqrt(distSq[i]), xs[i], zs[i]);
+            }
+            size = 0;
+            return List.of(result);
+        }
+
+        private void siftDown(int i, int bound) {
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= bound) return;
+
+                int largest = left;
+                int right = left + 1;
+                if (right < bound && distSq[right] > distSq[left]) largest = right;
+                if (distSq[i] >= distSq[largest]) return;
+
+                swap(i, largest);
+                i = largest;
+            }
+        }
+
+        private void set(int i, TrackedPlayer entry, double value, double x, double z) {
+            entries[i] = entry;
+            distSq[i] = value;
+            xs[i] = x;
+            zs[i] = z;
+        }
+
+        private void swap(int a, int b) {
+            TrackedPlayer entry = entries[a];
+            double value = distSq[a];
+            double x = xs[a];
+            double z = zs[a];
+            set(a, entries[b], distSq[b], xs[b], zs[b]);
+            set(b, entry, value, x, z);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.gw.nearmanager.managers;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+public final class PositionSnapshot {
+
+    private final StampedLock lock = new StampedLock();
+
+    @Getter
+    long tick;
+    int size;
+    int[] worldIndex = new int[0];
+    double[] x = new double[0];
+    double[] y = new double[0];
+    double[] z = new double[0];
+    float[] yaw = new float[0];
+    int[] flags = new int[0];
+
+    PositionSnapshot() {}
+
+    public long beginRead() {
+        return lock.tryOptimisticRead();
+    }
+
+    public boolean validate(long stamp) {
+        return stamp != 0L && lock.validate(stamp);
+    }
+
+    public boolean contains(int slot) {
+        return getWorldIndex(slot) >= 0;
+    }
+
+    public int getWorldIndex(int slot) {
+        int[] values = worldIndex;
+        return slot >= 0 && slot < values.length && slot < size ? values[slot] : -1;
+    }
+
+    public double getX(int slot) {
+        double[] values = x;
+        return slot >= 0 && slot < values.length ? values[slot] : 0.0;
+    }
+
+    public double getY(int slot) {
+        double[] values = y;
+        return slot >= 0 && slot < values.length ? values[slot] : 0.0;
+    }
+
+    public double getZ(int slot) {
+        double[] values = z;
+        return slot >= 0 && slot < values.length ? values[slot] : 0.0;
+    }
+
+    public float getYaw(int slot) {
+        float[] values = yaw;
+        return slot >= 0 && slot < values.length ? values[slot] : 0.0f;
+    }
+
+    public int getFlags(int slot) {
+        int[] values = flags;
+        return slot >= 0 && slot < values.length ? values[slot] : EligibilityManager.UNRESOLVED;
+    }
+
+    long lockRead() {
+        return lock.readLock();
+    }
+
+    void unlockRead(long stamp) {
+        lock.unlockRead(stamp);
+    }
+
+    long lockWrite(int capacity) {
+        long stamp = lock.writeLock();
+        ensureCapacity(capacity);
+        Arrays.fill(worldIndex, -1);
+        size = capacity;
+        return stamp;
+    }
+
+    void put(int slot, int world, double posX, double posY, double posZ, float posYaw, int slotFlags) {
+        if (slot < 0) return;
+
+        long stamp = lock.writeLock();
+        try {
+            ensureCapacity(slot + 1);
+            if (size <= slot) {
+                Arrays.fill(worldIndex, size, slot, -1);
+                size = slot + 1;
+            }
+            worldIndex[slot] = world;
+            x[slot] = posX;
+            y[slot] = posY;
+            z[slot] = posZ;
+            yaw[slot] = posYaw;
+            flags[slot] = slotFlags;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (worldIndex.length >= capacity) return;
+
+        int oldCapacity = worldIndex.length;
+        int newCapacity = Math.max(capacity, oldCapacity * 2);
+        worldIndex = Arrays.copyOf(worldIndex, newCapacity);
+        Arrays.fill(worldIndex, oldCapacity, newCapacity, -1);
+        x = Arrays.copyOf(x, newCapacity);
+        y = Arrays.copyOf(y, newCapacity);
+        z = Arrays.copyOf(z, newCapacity);
+        yaw = Arrays.copyOf(yaw, newCapacity);
+        flags = Arrays.copyOf(flags, newCapacity);
+    }
+
+    void unlockWrite(long stamp) {
+        lock.unlockWrite(stamp);
+    }
+}
@@ -0,0 +1,154 @@
+package org.gw.nearmanager.managers;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.scheduler.BukkitTask;
+import org.gw.nearmanager.NearManager;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+public final class PositionSnapshotManager {
+
+    private static final int MAX_OPTIMISTIC_READS = 3;
+
+    private final NearManager plugin;
+    private final ConfigManager configManager;
+    private final SpatialGridManager spatialGridManager;
+    private final Map<UUID, Integer> worldIndices = new ConcurrentHashMap<>();
+    private volatile UUID[] worldIds = new UUID[0];
+    private final Location scratch = new Location(null, 0, 0, 0);
+
+    private volatile PositionSnapshot front = new PositionSnapshot();
+    private PositionSnapshot back = new PositionSnapshot();
+    private long tick;
+
+    private BukkitTask captureTask;
+
+    public PositionSnapshotManager(NearManager plugin, ConfigManager configManager, SpatialGridManager spatialGridManager) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        this.spatialGridManager = spatialGridManager;
+        spatialGridManager.setPlacementListener(this::place);
+
+        capture();
+        startCaptureTask();
+    }
+
+    public PositionSnapshot getSnapshot() {
+        return front;
+    }
+
+    public int getWorldIndex(World world) {
+        if (world == null) return -1;
+        Integer index = worldIndices.get(world.getUID());
+        return index != null ? index : registerWorld(world.getUID());
+    }
+
+    public UUID getWorldId(int worldIndex) {
+        UUID[] ids = worldIds;
+        return worldIndex >= 0 && worldIndex < ids.length ? ids[worldIndex] : null;
+    }
+
+    private synchronized int registerWorld(UUID worldId) {
+        Integer existing = worldIndices.get(worldId);
+        if (existing != null) return existing;
+
+        // UUID публикуется раньше индекса: прочитавший индекс из снимка всегда найдёт мир
+        UUID[] ids = Arrays.copyOf(worldIds, worldIds.length + 1);
+        ids[ids.length - 1] = worldId;
+        worldIds = ids;
+        worldIndices.put(worldId, ids.length - 1);
+        return ids.length - 1;
+    }
+
+    public <T> T read(Function<PositionSnapshot, T> reader) {
+        for (int attempt = 0; attempt < MAX_OPTIMISTIC_READS; attempt++) {
+            PositionSnapshot snapshot = front;
+            long stamp = snapshot.beginRead();
+            if (stamp == 0L) continue;
+
+            try {
+                T result = reader.apply(snapshot);
+                if (snapshot.validate(stamp)) return result;
+            } catch (RuntimeException e) {
+                if (snapshot.validate(stamp)) throw e;
+            }
+        }
+
+        PositionSnapshot snapshot = front;
+        long stamp = snapshot.lockRead();
+        try {
+            return reader.apply(snapshot);
+        } finally {
+            snapshot.unlockRead(stamp);
+        }
+    }
+
+    public void capture() {
+        PositionSnapshot target = back;
+        long stamp = target.lockWrite(spatialGridManager.getSlotCapacity());
+        try {
+            World lastWorld = null;
+            int lastWorldIndex = -1;
+
+            for (TrackedPlayer entry : spatialGridManager.getTracked()) {
+                int slot = entry.getSlot();
+                if (slot >= target.size) continue;
+
+                entry.getPlayer().getLocation(scratch);
+                World world = scratch.getWorld();
+                if (world != lastWorld) {
+                    lastWorld = world;
+                    lastWorldIndex = getWorldIndex(world);
+                }
+
+                target.worldIndex[slot] = lastWorldIndex;
+                target.x[slot] = scratch.getX();
+                target.y[slot] = scratch.getY();
+                target.z[slot] = scratch.getZ();
+                target.yaw[slot] = scratch.getYaw();
+                target.flags[slot] = entry.getFlags();
+            }
+            target.tick = ++tick;
+        } finally {
+            target.unlockWrite(stamp);
+        }
+
+        back = front;
+        front = target;
+    }
+
+    /**
+     * Записывает позицию только что занятого слота (вход, смена мира) в текущий снимок,
+     * чтобы до следующего захвата он не читался пустым или с координатами прежнего владельца.
+     */
+    public void place(TrackedPlayer entry, Location location) {
+        if (entry == null || location == null) return;
+
+        front.put(entry.getSlot(), getWorldIndex(location.getWorld()),
+                location.getX(), location.getY(), location.getZ(), location.getYaw(), entry.getFlags());
+    }
+
+    public void restart() {
+        shutdown();
+        capture();
+        startCaptureTask();
+    }
+
+    public void shutdown() {
+        if (captureTask != null) {
+            captureTask.cancel();
+            captureTask = null;
+        }
+    }
+
+    private void startCaptureTask() {
+        int interval = Math.max(1, configManager.getPositionSnapshotInterval());
+        captureTask = Bukkit.getScheduler().runTaskTimer(plugin, this::capture, interval, interval);
+    }
+}
@@ -1,26 +1,55 @@
 package org.gw.nearmanager.managers;
 
 import net.luckperms.api.LuckPerms;
+import net.luckperms.api.cacheddata.CachedPermissionData;
+import net.luckperms.api.event.EventSubscription;
+import net.luckperms.api.event.node.NodeMutateEvent;
+import net.luckperms.api.event.user.UserDataRecalculateEvent;
 import net.luckperms.api.model.user.User;
+import net.luckperms.api.node.Node;
 import net.luckperms.api.query.QueryOptions;
+import net.luckperms.api.util.Tristate;
 import org.bukkit.Bukkit;
 import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
 import org.bukkit.permissions.PermissionAttachmentInfo;
 import org.gw.nearmanager.NearManager;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
-public final class RadiusManager {
+public final class RadiusManager implements Listener {
 
-    private final NearManager plugin = NearManager.getPlugin(NearManager.class);
+    public static final int CUSTOM_RADIUS = 1;
+    public static final int BYPASS_COOLDOWN = 1 << 1;
+    public static final int BYPASS_VANISH = 1 << 2;
+
+    private static final String RADIUS_PERMISSION_PREFIX = "nearmanager.near-radius.";
+    private static final String CUSTOM_RADIUS_PERMISSION = "nearmanager.near.custom-radius";
+    private static final String BYPASS_COOLDOWN_PERMISSION = "nearmanager.near.bypass-cooldown";
+    private static final String BYPASS_VANISH_PERMISSION = "nearmanager.near.bypass-vanish";
+
+    private final NearManager plugin;
     private final ConfigManager configManager;
+    private final MetricsManager metricsManager;
     private final LuckPerms luckPerms;
-    private final Map<UUID, Integer> radiusCache = new ConcurrentHashMap<>();
+    private final Map<UUID, NearProfile> profiles = new ConcurrentHashMap<>();
+    private final Set<UUID> pendingRefresh = ConcurrentHashMap.newKeySet();
+    private final List<EventSubscription<?>> subscriptions = new ArrayList<>();
 
-    public RadiusManager(ConfigManager configManager) {
+    public RadiusManager(NearManager plugin, ConfigManager configManager, MetricsManager metricsManager) {
+        this.plugin = plugin;
         this.configManager = configManager;
+        this.metricsManager = metricsManager;
         LuckPerms lp = null;
         try {
             lp = Bukkit.getServicesManager().load(LuckPerms.class);
@@ -31,85 +60,317 @@ public final class RadiusManager {
             plugin.log("Api плагина LuckPerms не найдена, расширенные группы радиусов отключены...");
         }
         this.luckPerms = lp;
+        subscribeLuckPermsEvents();
+        prefetchOnline();
+    }
+
+    private void subscribeLuckPermsEvents() {
+        if (luckPerms == null) return;
+
+        try {
+            subscriptions.add(luckPerms.getEventBus().subscribe(plugin, UserDataRecalculateEvent.class,
+                    event -> scheduleRefresh(event.getUser().getUniqueId())));
+            subscriptions.add(luckPerms.getEventBus().subscribe(plugin, NodeMutateEvent.class, this::onNodeMutate));
+        } catch (Exception e) {
+            plugin.error("Не удалось подписаться на события &#fb8808LuckPerms&f: " + e.getMessage());
+        }
+    }
+
+    private void onNodeMutate(NodeMutateEvent event) {
+        if (!affectsProfile(event.getDataBefore(), event.getDataAfter())) return;
+
+        if (event.getTarget() instanceof User user) {
+            scheduleRefresh(user.getUniqueId());
+        } else {
+            for (UUID uuid : profiles.keySet()) {
+                scheduleRefresh(uuid);
+            }
+        }
+    }
+
+    private boolean affectsProfile(Set<Node> before, Set<Node> after) {
+        for (Node node : after) {
+            if (!before.contains(node) && isProfileNode(node)) return true;
+        }
+        for (Node node : before) {
+            if (!after.contains(node) && isProfileNode(node)) return true;
+        }
+        return false;
+    }
+
+    private boolean isProfileNode(Node node) {
+        String key = node.getKey();
+        return key.startsWith(RADIUS_PERMISSION_PREFIX)
+                || key.startsWith("group.")
+                || key.equals(CUSTOM_RADIUS_PERMISSION)
+                || key.equals(BYPASS_COOLDOWN_PERMISSION)
+                || key.equals(BYPASS_VANISH_PERMISSION)
+                || key.startsWith("meta." + configManager.getNearRadiusMetaKey() + ".");
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED || luckPerms == null) return;
+
+        try {
+            User user = luckPerms.getUserManager().loadUser(event.getUniqueId(), event.getName()).join();
+            if (user != null) {
+                profiles.put(event.getUniqueId(), resolveProfile(user));
+            }
+        } catch (Exception e) {
+            plugin.error("Ошибка предзагрузки радиуса для игрока &#fb8808" + event.getName() + ": " + e.getMessage());
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onLogin(PlayerLoginEvent event) {
+        if (event.getResult() != PlayerLoginEvent.Result.ALLOWED) {
+            evict(event.getPlayer().getUniqueId());
+        }
+    }
+
+    // Профиль не предзагружен (нет LuckPerms или он не успел загрузить пользователя):
+    // считаем синхронно при входе, а не на первой команде
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        if (!profiles.containsKey(player.getUniqueId())) {
+            profiles.put(player.getUniqueId(), computeProfile(player));
+        }
     }
 
     public int getRadius(Player player) {
         if (player == null) {
             return configManager.getDefaultRadius();
         }
+        return profileOf(player).radius();
+    }
 
-        UUID uuid = player.getUniqueId();
-        Integer cached = radiusCache.get(uuid);
-        if (cached != null) {
-            return cached;
-        }
+    public boolean hasFlag(Player player, int flag) {
+        return (profileOf(player).flags() & flag) != 0;
+    }
 
-        int radius = getMaxRadiusFromPermissions(player);
-        if (radius > 0) {
-            radiusCache.put(uuid, radius);
-            return radius;
+    private NearProfile profileOf(Player player) {
+        NearProfile profile = profiles.get(player.getUniqueId());
+        if (profile != null) {
+            metricsManager.increment(MetricsManager.Counter.RADIUS_CACHE_HIT);
+            return profile;
         }
 
+        metricsManager.increment(MetricsManager.Counter.RADIUS_CACHE_MISS);
+        profile = computeProfile(player);
+        profiles.put(player.getUniqueId(), profile);
+        return profile;
+    }
+
+    private NearProfile computeProfile(Player player) {
+        return new NearProfile(computeRadius(player), computeFlags(player));
+    }
+
+    private int computeRadius(Player player) {
+        int radius = getRadiusFromMeta(player);
+        if (radius > 0) return radius;
+
+        radius = getMaxRadiusFromPermissions(player);
+        if (radius > 0) return radius;
+
         if (configManager.isNearRadiusGroupsEnabled() && luckPerms != null) {
             radius = getMaxRadiusFromLuckPerms(player);
-            if (radius > 0) {
-                radiusCache.put(uuid, radius);
-                return radius;
+            if (radius > 0) return radius;
+        }
+
+        return configManager.getDefaultRadius();
+    }
+
+    private int computeFlags(Player player) {
+        int flags = 0;
+        if (player.hasPermission(CUSTOM_RADIUS_PERMISSION)) flags |= CUSTOM_RADIUS;
+        if (player.hasPermission(BYPASS_COOLDOWN_PERMISSION)) flags |= BYPASS_COOLDOWN;
+        if (player.hasPermission(BYPASS_VANISH_PERMISSION)) flags |= BYPASS_VANISH;
+        return flags;
+    }
+
+    /**
+     * Профиль по кэшу LuckPerms без обращения к Bukkit: радиус без узлов LuckPerms берётся по умолчанию,
+     * а UNDEFINED означает значение по умолчанию из plugin.yml (только для OP). Транзиентные узлы и
+     * PermissionAttachment LuckPerms уже учитывает в checkPermission.
+     */
+    private NearProfile resolveProfile(User user) {
+        CachedPermissionData permissions = user.getCachedData().getPermissionData();
+        boolean op = Bukkit.getOfflinePlayer(user.getUniqueId()).isOp();
+
+        int radius = parseMetaRadius(user, user.getUsername());
+        if (radius <= 0) {
+            radius = getMaxRadius(permissions.getPermissionMap());
+        }
+        if (radius <= 0 && configManager.isNearRadiusGroupsEnabled()) {
+            radius = getMaxGroupRadius(user);
+        }
+        if (radius <= 0) {
+            radius = configManager.getDefaultRadius();
+        }
+
+        int flags = 0;
+        if (check(permissions, CUSTOM_RADIUS_PERMISSION, op)) flags |= CUSTOM_RADIUS;
+        if (check(permissions, BYPASS_COOLDOWN_PERMISSION, op)) flags |= BYPASS_COOLDOWN;
+        if (check(permissions, BYPASS_VANISH_PERMISSION, op)) flags |= BYPASS_VANISH;
+        return new NearProfile(radius, flags);
+    }
+
+    private boolean check(CachedPermissionData permissions, String permission, boolean op) {
+        Tristate state = permissions.checkPermission(permission);
+        return state == Tristate.UNDEFINED ? op : state.asBoolean();
+    }
+
+    private void resolveOnMainThread(UUID uuid) {
+        Bukkit.getScheduler().runTask(plugin, () -> {
+            Player player = Bukkit.getPlayer(uuid);
+            if (player == null || !player.isOnline()) {
+                evict(uuid);
+                return;
             }
+            profiles.put(uuid, computeProfile(player));
+        });
+    }
+
+    private void scheduleRefresh(UUID uuid) {
+        if (!profiles.containsKey(uuid) || !pendingRefresh.add(uuid)) return;
+
+        Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+            pendingRefresh.remove(uuid);
+            refreshProfile(uuid);
+        });
+    }
+
+    private void refreshProfile(UUID uuid) {
+        if (luckPerms == null || !profiles.containsKey(uuid)) return;
+
+        User user = luckPerms.getUserManager().getUser(uuid);
+        if (user == null) {
+            resolveOnMainThread(uuid);
+            return;
         }
 
-        radius = configManager.getDefaultRadius();
-        radiusCache.put(uuid, radius);
-        return radius;
+        NearProfile profile = resolveProfile(user);
+        profiles.computeIfPresent(uuid, (id, previous) -> profile);
+    }
+
+    private void prefetchOnline() {
+        if (luckPerms == null) return;
+
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            UUID uuid = player.getUniqueId();
+            Bukkit.getScheduler().runTaskAsynchronously(plugin, () -> {
+                User user = luckPerms.getUserManager().getUser(uuid);
+                if (user != null) {
+                    profiles.putIfAbsent(uuid, resolveProfile(user));
+                } else {
+                    resolveOnMainThread(uuid);
+                }
+            });
+        }
+    }
+
+    private int getRadiusFromMeta(Player player) {
+        if (!configManager.isNearRadiusMetaEnabled() || luckPerms == null) return -1;
+
+        User user = luckPerms.getUserManager().getUser(player.getUniqueId());
+        return user != null ? parseMetaRadius(user, player.getName()) : -1;
+    }
+
+    private int parseMetaRadius(User user, String playerName) {
+        if (!configManager.isNearRadiusMetaEnabled()) return -1;
+
+        String value = user.getCachedData().getMetaData().getMetaValue(configManager.getNearRadiusMetaKey());
+        if (value == null) return -1;
+
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            plugin.error("Некорректное значение мета-ключа &#fb8808" + configManager.getNearRadiusMetaKey() +
+                    " &fу игрока &#fb8808" + playerName + ": " + value);
+            return -1;
+        }
     }
 
     private int getMaxRadiusFromPermissions(Player player) {
         int max = -1;
         for (PermissionAttachmentInfo pai : player.getEffectivePermissions()) {
-            if (pai.getValue() && pai.getPermission().startsWith("nearmanager.near-radius.")) {
-                try {
-                    int value = Integer.parseInt(pai.getPermission().substring("nearmanager.near-radius.".length()));
-                    if (value > max) {
-                        max = value;
-                    }
-                } catch (NumberFormatException ignored) {
-                }
+            if (pai.getValue() && pai.getPermission().startsWith(RADIUS_PERMISSION_PREFIX)) {
+                max = Math.max(max, parseRadiusPermission(pai.getPermission()));
             }
         }
         return max;
     }
 
+    private int getMaxRadius(Map<String, Boolean> permissionMap) {
+        int max = -1;
+        for (Map.Entry<String, Boolean> entry : permissionMap.entrySet()) {
+            if (entry.getValue() && entry.getKey().startsWith(RADIUS_PERMISSION_PREFIX)) {
+                max = Math.max(max, parseRadiusPermission(entry.getKey()));
+            }
+        }
+        return max;
+    }
+
+    private int parseRadiusPermission(String permission) {
+        try {
+            return Integer.parseInt(permission.substring(RADIUS_PERMISSION_PREFIX.length()));
+        } catch (NumberFormatException ignored) {
+            return -1;
+        }
+    }
+
     private int getMaxRadiusFromLuckPerms(Player player) {
         if (luckPerms == null) return -1;
 
         try {
             User user = luckPerms.getUserManager().getUser(player.getUniqueId());
-            if (user == null) return -1;
-
-            Map<String, Integer> groupRadii = configManager.getNearRadiusGroups();
-            int max = -1;
-
-            for (var group : user.getInheritedGroups(QueryOptions.defaultContextualOptions())) {
-                Integer radius = groupRadii.get(group.getName());
-                if (radius != null && radius > max) {
-                    max = radius;
-                }
-            }
-            return max;
+            return user != null ? getMaxGroupRadius(user) : -1;
         } catch (Exception e) {
             plugin.error("Ошибка получения групп из &#fb8808LuckPerms &fдля игрока &#fb8808" + player.getName() + ": " + e.getMessage());
             return -1;
         }
     }
 
+    private int getMaxGroupRadius(User user) {
+        Map<String, Integer> groupRadii = configManager.getNearRadiusGroups();
+        int max = -1;
+
+        for (var group : user.getInheritedGroups(QueryOptions.defaultContextualOptions())) {
+            Integer radius = groupRadii.get(group.getName());
+            if (radius != null && radius > max) {
+                max = radius;
+            }
+        }
+        return max;
+    }
+
     public void clearAllCache() {
-        radiusCache.clear();
+        metricsManager.add(MetricsManager.Counter.RADIUS_CACHE_EVICTION, profiles.size());
+        profiles.clear();
+        prefetchOnline();
         plugin.log("Кэш вычислителя радиусов игроков &#FFFF00успешно &fочищен!");
     }
 
     public void invalidate(UUID uuid) {
         if (uuid != null) {
-            radiusCache.remove(uuid);
+            evict(uuid);
         }
     }
-}
\ No newline at end of file
+
+    private void evict(UUID uuid) {
+        if (profiles.remove(uuid) != null) {
+            metricsManager.increment(MetricsManager.Counter.RADIUS_CACHE_EVICTION);
+        }
+    }
+
+    public void shutdown() {
+        for (EventSubscription<?> subscription : subscriptions) {
+            subscription.close();
+        }
+        subscriptions.clear();
+    }
+
+    private record NearProfile(int radius, int flags) {}
+}
@@ -0,0 +1,219 @@
+package org.gw.nearmanager.managers;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+public final class SpatialGridManager {
+
+    // Ячейки 16, 128, 1024, 8192 и 65536 блоков: крупные уровни нужны для радиусов до 100000
+    private static final int[] LEVEL_SHIFTS = {4, 7, 10, 13, 16};
+    private static final int MAX_QUERY_CELLS = 64;
+
+    private static final ThreadLocal<CellRemoval> CELL_REMOVALS = ThreadLocal.withInitial(CellRemoval::new);
+
+    private final Map<UUID, WorldGrid> worlds = new ConcurrentHashMap<>();
+    private final Map<UUID, TrackedPlayer> tracked = new ConcurrentHashMap<>();
+    private final BitSet usedSlots = new BitSet();
+
+    private BiConsumer<TrackedPlayer, Location> placementListener;
+
+    public SpatialGridManager() {
+        for (Player player : Bukkit.getOnlinePlayers()) {
+            track(player);
+        }
+    }
+
+    public void setPlacementListener(BiConsumer<TrackedPlayer, Location> placementListener) {
+        this.placementListener = placementListener;
+    }
+
+    public void track(Player player) {
+        if (player == null) return;
+        update(player, player.getLocation());
+    }
+
+    public void update(Player player, Location location) {
+        if (player == null || location == null || location.getWorld() == null) return;
+
+        UUID worldId = location.getWorld().getUID();
+        int cellX = location.getBlockX() >> LEVEL_SHIFTS[0];
+        int cellZ = location.getBlockZ() >> LEVEL_SHIFTS[0];
+
+        TrackedPlayer entry = tracked.get(player.getUniqueId());
+        boolean placed;
+        if (entry != null && entry.getPlayer() == player) {
+            if (entry.cellX == cellX && entry.cellZ == cellZ && worldId.equals(entry.worldId)) return;
+            placed = !worldId.equals(entry.worldId);
+            unlink(entry);
+        } else {
+            placed = true;
+            if (entry != null) release(entry);
+            int slot = usedSlots.nextClearBit(0);
+            usedSlots.set(slot);
+            entry = new TrackedPlayer(player, slot);
+            tracked.put(entry.getUuid(), entry);
+        }
+
+        entry.worldId = worldId;
+        entry.cellX = cellX;
+        entry.cellZ = cellZ;
+        worlds.computeIfAbsent(worldId, id -> new WorldGrid()).link(entry);
+
+        // Новый слот или смена мира: до следующего снимка слот пуст или хранит чужие координаты
+        if (placed && placementListener != null) {
+            placementListener.accept(entry, location);
+        }
+    }
+
+    public void remove(UUID uuid) {
+        if (uuid == null) return;
+        TrackedPlayer entry = tracked.remove(uuid);
+        if (entry != null) release(entry);
+    }
+
+    public TrackedPlayer get(UUID uuid) {
+        return uuid != null ? tracked.get(uuid) : null;
+    }
+
+    public Collection<TrackedPlayer> getTracked() {
+        return tracked.values();
+    }
+
+    public int getSlotCapacity() {
+        return usedSlots.length();
+    }
+
+    public List<TrackedPlayer> getCandidates(World world, double x, double z, double radius) {
+        return world != null ? getCandidates(world.getUID(), x, z, radius) : new ArrayList<>();
+    }
+
+    public List<TrackedPlayer> getCandidates(UUID worldId, double x, double z, double radius) {
+        List<TrackedPlayer> result = new ArrayList<>();
+        if (worldId == null || radius < 0) return result;
+
+        WorldGrid grid = worlds.get(worldId);
+        if (grid == null || grid.members.isEmpty()) return result;
+
+        int level = 0;
+        int minCellX = 0, maxCellX = 0, minCellZ = 0, maxCellZ = 0;
+        for (; level < LEVEL_SHIFTS.length; level++) {
+            int shift = LEVEL_SHIFTS[level];
+            minCellX = (int) Math.floor(x - radius) >> shift;
+            maxCellX = (int) Math.floor(x + radius) >> shift;
+            minCellZ = (int) Math.floor(z - radius) >> shift;
+            maxCellZ = (int) Math.floor(z + radius) >> shift;
+            if ((long) (maxCellX - minCellX + 1) * (maxCellZ - minCellZ + 1) <= MAX_QUERY_CELLS) break;
+        }
+        if (level == LEVEL_SHIFTS.length) level--;
+
+        long cellCount = (long) (maxCellX - minCellX + 1) * (maxCellZ - minCellZ + 1);
+        if (grid.members.size() <= cellCount) {
+            result.addAll(grid.members);
+            return result;
+        }
+
+        int shift = LEVEL_SHIFTS[level];
+        double cellSize = 1 << shift;
+        double radiusSq = radius * radius;
+        Map<Long, Set<TrackedPlayer>> cells = grid.levels[level];
+
+        for (int cx = minCellX; cx <= maxCellX; cx++) {
+            double cellMinX = (double) cx * cellSize;
+            double dx = Math.max(0.0, Math.max(cellMinX - x, x - (cellMinX + cellSize)));
+
+            for (int cz = minCellZ; cz <= maxCellZ; cz++) {
+                double cellMinZ = (double) cz * cellSize;
+                double dz = Math.max(0.0, Math.max(cellMinZ - z, z - (cellMinZ + cellSize)));
+                if (dx * dx + dz * dz > radiusSq) continue;
+
+                Set<TrackedPlayer> cell = cells.get(pack(cx, cz));
+                if (cell != null) result.addAll(cell);
+            }
+        }
+        return result;
+    }
+
+    public void clear() {
+        tracked.clear();
+        worlds.clear();
+        usedSlots.clear();
+    }
+
+    private void release(TrackedPlayer entry) {
+        unlink(entry);
+        usedSlots.clear(entry.getSlot());
+    }
+
+    private void unlink(TrackedPlayer entry) {
+        if (entry.worldId == null) return;
+        WorldGrid grid = worlds.get(entry.worldId);
+        if (grid != null) grid.unlink(entry);
+    }
+
+    static long pack(int cellX, int cellZ) {
+        // умножение на нечётную константу обратимо, а Long.hashCode от сырой упаковки равен cellX ^ cellZ,
+        // из-за чего соседние ячейки попадают в одну корзину ConcurrentHashMap и она вырождается в дерево
+        return (((long) cellX << 32) | (cellZ & 0xFFFFFFFFL)) * 0x9E3779B97F4A7C15L;
+    }
+
+    private static final class WorldGrid {
+
+        private final Set<TrackedPlayer> members = ConcurrentHashMap.newKeySet();
+        @SuppressWarnings("unchecked")
+        private final Map<Long, Set<TrackedPlayer>>[] levels = new Map[LEVEL_SHIFTS.length];
+
+        private WorldGrid() {
+            for (int i = 0; i < levels.length; i++) {
+                levels[i] = new ConcurrentHashMap<>();
+            }
+        }
+
+        private void link(TrackedPlayer entry) {
+            members.add(entry);
+            for (int i = 0; i < levels.length; i++) {
+                int shift = LEVEL_SHIFTS[i] - LEVEL_SHIFTS[0];
+                long key = pack(entry.cellX >> shift, entry.cellZ >> shift);
+                levels[i].computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(entry);
+            }
+        }
+
+        private void unlink(TrackedPlayer entry) {
+            members.remove(entry);
+            CellRemoval removal = CELL_REMOVALS.get();
+            removal.entry = entry;
+            try {
+                for (int i = 0; i < levels.length; i++) {
+                    int shift = LEVEL_SHIFTS[i] - LEVEL_SHIFTS[0];
+                    levels[i].computeIfPresent(pack(entry.cellX >> shift, entry.cellZ >> shift), removal);
+                }
+            } finally {
+                removal.entry = null;
+            }
+        }
+    }
+
+    // переиспользуемая функция удаления из ячейки: захватывающая лямбда создавалась бы на каждом переходе блока
+    private static final class CellRemoval implements BiFunction<Long, Set<TrackedPlayer>, Set<TrackedPlayer>> {
+
+        private TrackedPlayer entry;
+
+        @Override
+        public Set<TrackedPlayer> apply(Long key, Set<TrackedPlayer> cell) {
+            cell.remove(entry);
+            return cell.isEmpty() ? null : cell;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.gw.nearmanager.managers;
+
+import lombok.Getter;
+import org.bukkit.entity.Player;
+
+import java.util.UUID;
+
+public final class TrackedPlayer {
+
+    @Getter
+    private final Player player;
+    @Getter
+    private final UUID uuid;
+    @Getter
+    private final String name;
+    @Getter
+    private final int slot;
+
+    @Getter
+    volatile int flags = EligibilityManager.UNRESOLVED;
+
+    @Getter
+    volatile UUID worldId;
+    int cellX;
+    int cellZ;
+
+    TrackedPlayer(Player player, int slot) {
+        this.player = player;
+        this.slot = slot;
+        this.uuid = player.getUniqueId();
+        this.name = player.getName();
+    }
+}
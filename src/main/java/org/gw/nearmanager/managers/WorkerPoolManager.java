@@ -0,0 +1,88 @@
+package org.gw.nearmanager.managers;
+
+import org.gw.nearmanager.NearManager;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class WorkerPoolManager {
+
+    private static final int QUEUE_CAPACITY = 4096;
+
+    private final NearManager plugin;
+    private final ConfigManager configManager;
+
+    private volatile ThreadPoolExecutor executor;
+
+    public WorkerPoolManager(NearManager plugin, ConfigManager configManager) {
+        this.plugin = plugin;
+        this.configManager = configManager;
+        start();
+    }
+
+    public boolean isEnabled() {
+        return executor != null;
+    }
+
+    public void submit(Runnable task) {
+        ThreadPoolExecutor current = executor;
+        if (current == null) {
+            task.run();
+            return;
+        }
+        current.execute(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                plugin.error("Ошибка асинхронной обработки команды: " + e.getMessage());
+            }
+        });
+    }
+
+    public void restart() {
+        shutdown();
+        start();
+    }
+
+    public void shutdown() {
+        ThreadPoolExecutor current = executor;
+        executor = null;
+        if (current == null) return;
+
+        current.shutdown();
+        try {
+            if (!current.awaitTermination(2, TimeUnit.SECONDS)) {
+                current.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            current.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void start() {
+        if (!configManager.isAsyncNearEnabled()) return;
+
+        int threads = Math.max(1, configManager.getAsyncNearThreads());
+        executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY), new WorkerThreadFactory(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        plugin.log("Асинхронная обработка &#FFFF00/near &fвключена, потоков: &#FFFF00" + threads);
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "NearManager-Worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
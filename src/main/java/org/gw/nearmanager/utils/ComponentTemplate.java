@@ -0,0 +1,306 @@
+package org.gw.nearmanager.utils;
+
+import net.kyori.adventure.text.Component;
+import net.kyori.adventure.text.TextComponent;
+import net.kyori.adventure.text.event.ClickEvent;
+import net.kyori.adventure.text.event.HoverEvent;
+import net.kyori.adventure.text.format.Style;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public final class ComponentTemplate {
+
+    private static final Pattern SLOT_PATTERN = Pattern.compile("\\{([A-Za-z0-9_-]+)}");
+    private static final char SLOT_MARK = '\uE000';
+    private static final char SLOT_BASE = '\uE100';
+    private static final int MAX_SLOTS = 256;
+
+    public static final ComponentTemplate EMPTY = new ComponentTemplate("", new String[0], new StaticNode(Component.empty()));
+
+    private final String source;
+    private final String[] slots;
+    private final Node root;
+
+    private ComponentTemplate(String source, String[] slots, Node root) {
+        this.source = source;
+        this.slots = slots;
+        this.root = root;
+    }
+
+    public static ComponentTemplate compile(String source) {
+        if (source == null || source.isEmpty()) return EMPTY;
+
+        Set<String> names = new LinkedHashSet<>();
+        Matcher matcher = SLOT_PATTERN.matcher(source);
+        while (matcher.find()) {
+            names.add(matcher.group(1));
+        }
+        return compile(source, names.toArray(new String[0]));
+    }
+
+    public static ComponentTemplate compile(String source, String... slots) {
+        if (source == null || source.isEmpty()) return EMPTY;
+        if (slots.length > MAX_SLOTS) return new ComponentTemplate(source, slots, null);
+
+        Matcher matcher = SLOT_PATTERN.matcher(source);
+        StringBuilder marked = new StringBuilder(source.length());
+        while (matcher.find()) {
+            int index = indexOf(slots, matcher.group(1));
+            String replacement = index < 0 ? matcher.group() : String.valueOf(new char[]{SLOT_MARK, (char) (SLOT_BASE + index)});
+            matcher.appendReplacement(marked, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(marked);
+
+        try {
+            return new ComponentTemplate(source, slots, compileNode(HexColors.translateToComponent(marked.toString())));
+        } catch (UnsupportedTemplateException e) {
+            return new ComponentTemplate(source, slots, null);
+        }
+    }
+
+    public boolean isStatic() {
+        return root instanceof StaticNode;
+    }
+
+    public Component render(String... values) {
+        if (root == null) return renderSlow(values);
+        return root.render(values);
+    }
+
+    public Component renderFragments(Component... fragments) {
+        if (root == null) return renderSlow(serializeAll(fragments));
+        return root.render(fragments);
+    }
+
+    public Component render(Map<String, String> values) {
+        return render(values::get);
+    }
+
+    public Component render(Function<String, String> values) {
+        String[] resolved = new String[slots.length];
+        for (int i = 0; i < slots.length; i++) {
+            String value = values.apply(slots[i]);
+            resolved[i] = value != null ? value : "{" + slots[i] + "}";
+        }
+        return render(resolved);
+    }
+
+    private Component renderSlow(String[] values) {
+        String text = source;
+        for (int i = 0; i < slots.length && i < values.length; i++) {
+            text = text.replace("{" + slots[i] + "}", values[i]);
+        }
+        return HexColors.translateToComponent(text);
+    }
+
+    private static String[] serializeAll(Component[] fragments) {
+        String[] values = new String[fragments.length];
+        for (int i = 0; i < fragments.length; i++) {
+            values[i] = fragments[i] != null ? HexColors.serialize(fragments[i]) : "";
+        }
+        return values;
+    }
+
+    private static int indexOf(String[] slots, String name) {
+        for (int i = 0; i < slots.length; i++) {
+            if (slots[i].equals(name)) return i;
+        }
+        return -1;
+    }
+
+    private static Node compileNode(Component component) {
+        Style style = component.style();
+        ClickEvent click = style.clickEvent();
+        HoverEvent<?> hover = style.hoverEvent();
+        if ((click != null && click.value().indexOf(SLOT_MARK) >= 0)
+                || (style.insertion() != null && style.insertion().indexOf(SLOT_MARK) >= 0)
+                || (hover != null && hover.value() instanceof Component text && containsMark(text))) {
+            throw new UnsupportedTemplateException();
+        }
+
+        List<Component> children = component.children();
+        Node[] childNodes = new Node[children.size()];
+        boolean dynamic = false;
+        for (int i = 0; i < childNodes.length; i++) {
+            childNodes[i] = compileNode(children.get(i));
+            dynamic |= !(childNodes[i] instanceof StaticNode);
+        }
+
+        if (component instanceof TextComponent text && hasSlots(text.content())) {
+            return TextNode.of(text.content(), style, childNodes);
+        }
+        return dynamic ? new ContainerNode(component, childNodes) : new StaticNode(component);
+    }
+
+    private static boolean hasSlots(String content) {
+        boolean found = false;
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (c == SLOT_MARK) {
+                if (i + 1 >= content.length() || !isSlotIndex(content.charAt(i + 1))) throw new UnsupportedTemplateException();
+                found = true;
+                i++;
+            } else if (isSlotIndex(c)) {
+                throw new UnsupportedTemplateException();
+            }
+        }
+        return found;
+    }
+
+    private static boolean isSlotIndex(char c) {
+        return c >= SLOT_BASE && c < SLOT_BASE + MAX_SLOTS;
+    }
+
+    private static boolean containsMark(Component component) {
+        if (component instanceof TextComponent text && text.content().indexOf(SLOT_MARK) >= 0) return true;
+        for (Component child : component.children()) {
+            if (containsMark(child)) return true;
+        }
+        return false;
+    }
+
+    private static boolean isPlain(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '&' || c == '<' || c == '§') return false;
+        }
+        return true;
+    }
+
+    private static List<Component> renderAll(Node[] nodes, String[] values) {
+        List<Component> rendered = new ArrayList<>(nodes.length);
+        for (Node node : nodes) {
+            rendered.add(node.render(values));
+        }
+        return rendered;
+    }
+
+    private static List<Component> renderAll(Node[] nodes, Component[] fragments) {
+        List<Component> rendered = new ArrayList<>(nodes.length);
+        for (Node node : nodes) {
+            rendered.add(node.render(fragments));
+        }
+        return rendered;
+    }
+
+    private sealed interface Node permits StaticNode, TextNode, ContainerNode {
+        Component render(String[] values);
+
+        Component render(Component[] fragments);
+    }
+
+    private record StaticNode(Component component) implements Node {
+        @Override
+        public Component render(String[] values) {
+            return component;
+        }
+
+        @Override
+        public Component render(Component[] fragments) {
+            return component;
+        }
+    }
+
+    private record ContainerNode(Component component, Node[] children) implements Node {
+        @Override
+        public Component render(String[] values) {
+            return component.children(renderAll(children, values));
+        }
+
+        @Override
+        public Component render(Component[] fragments) {
+            return component.children(renderAll(children, fragments));
+        }
+    }
+
+    private record TextNode(String[] literals, Component[] literalParts, int[] slotIndices, Style style,
+                            Node[] children) implements Node {
+
+        private static TextNode of(String content, Style style, Node[] children) {
+            List<String> literals = new ArrayList<>();
+            List<Integer> indices = new ArrayList<>();
+
+            int start = 0;
+            for (int i = content.indexOf(SLOT_MARK); i >= 0; i = content.indexOf(SLOT_MARK, start)) {
+                literals.add(content.substring(start, i));
+                indices.add(content.charAt(i + 1) - SLOT_BASE);
+                start = i + 2;
+            }
+            literals.add(content.substring(start));
+
+            int[] slotIndices = new int[indices.size()];
+            for (int i = 0; i < slotIndices.length; i++) {
+                slotIndices[i] = indices.get(i);
+            }
+            Component[] literalParts = new Component[literals.size()];
+            for (int i = 0; i < literalParts.length; i++) {
+                if (!literals.get(i).isEmpty()) literalParts[i] = Component.text(literals.get(i));
+            }
+            return new TextNode(literals.toArray(new String[0]), literalParts, slotIndices, style, children);
+        }
+
+        @Override
+        public Component render(Component[] fragments) {
+            List<Component> parts = new ArrayList<>(literalParts.length + slotIndices.length + children.length);
+            for (int i = 0; i < slotIndices.length; i++) {
+                if (literalParts[i] != null) parts.add(literalParts[i]);
+                int index = slotIndices[i];
+                if (index < fragments.length && fragments[index] != null) parts.add(fragments[index]);
+            }
+            if (literalParts[slotIndices.length] != null) parts.add(literalParts[slotIndices.length]);
+            for (Node child : children) {
+                parts.add(child.render(fragments));
+            }
+            return Component.text("", style).children(parts);
+        }
+
+        @Override
+        public Component render(String[] values) {
+            boolean plain = true;
+            int length = 0;
+            for (int i = 0; i < slotIndices.length; i++) {
+                String value = value(values, i);
+                plain &= isPlain(value);
+                length += value.length() + literals[i].length();
+            }
+
+            if (plain) {
+                StringBuilder content = new StringBuilder(length + literals[slotIndices.length].length());
+                for (int i = 0; i < slotIndices.length; i++) {
+                    content.append(literals[i]).append(value(values, i));
+                }
+                content.append(literals[slotIndices.length]);
+                Component text = Component.text(content.toString(), style);
+                return children.length == 0 ? text : text.children(renderAll(children, values));
+            }
+
+            List<Component> parts = new ArrayList<>(slotIndices.length * 2 + 1 + children.length);
+            for (int i = 0; i < slotIndices.length; i++) {
+                if (literalParts[i] != null) parts.add(literalParts[i]);
+                parts.add(HexColors.translateToComponent(value(values, i)));
+            }
+            if (literalParts[slotIndices.length] != null) parts.add(literalParts[slotIndices.length]);
+            parts.addAll(renderAll(children, values));
+            return Component.text("", style).children(parts);
+        }
+
+        private String value(String[] values, int part) {
+            int index = slotIndices[part];
+            String value = index < values.length ? values[index] : null;
+            return value != null ? value : "";
+        }
+    }
+
+    private static final class UnsupportedTemplateException extends RuntimeException {
+        private UnsupportedTemplateException() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.gw.nearmanager.utils;
+
+import java.util.Locale;
+
+public enum Direction {
+    NORTH,
+    NORTHEAST,
+    EAST,
+    SOUTHEAST,
+    SOUTH,
+    SOUTHWEST,
+    WEST,
+    NORTHWEST;
+
+    private static final Direction[] VALUES = values();
+
+    private final String key = name().toLowerCase(Locale.ROOT);
+
+    public String key() {
+        return key;
+    }
+
+    public static Direction byOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+
+    public static int count() {
+        return VALUES.length;
+    }
+}
@@ -2,14 +2,54 @@ package org.gw.nearmanager.utils;
 
 public final class DirectionUtils {
 
+    // tan(22.5°): граница между прямым и диагональным октантом
+    private static final double OCTANT_SLOPE = Math.sqrt(2.0) - 1.0;
+    private static final double TIE_EPSILON = 1.0e-9;
+
     private DirectionUtils() {}
 
-    public static String getDirectionKey(double viewerX, double viewerZ, float viewerYaw, double toX, double toZ) {
-        double dx = toX - viewerX;
-        double dz = toZ - viewerZ;
+    public static Direction getDirection(double viewerX, double viewerZ, float viewerYaw, double toX, double toZ) {
+        return classify(basis(viewerYaw), toX - viewerX, toZ - viewerZ);
+    }
+
+    public static void getDirections(double viewerX, double viewerZ, float viewerYaw,
+                                     double[] xs, double[] zs, int count, Direction[] out) {
+        Basis basis = basis(viewerYaw);
+        for (int i = 0; i < count; i++) {
+            out[i] = classify(basis, xs[i] - viewerX, zs[i] - viewerZ);
+        }
+    }
+
+    public static Basis basis(float yaw) {
+        // нормализация во float, как в classifyByAngle: иначе у границ октантов ответы расходятся
+        float normalized = normalize(yaw);
+        double radians = Math.toRadians(normalized);
+        return new Basis(yaw, Math.sin(radians), Math.cos(radians));
+    }
+
+    public static Direction classify(Basis basis, double dx, double dz) {
+        if (dx == 0.0 && dz == 0.0) dx = 1.0;
 
-        float yaw = viewerYaw;
-        yaw = ((yaw % 360) + 360) % 360;
+        double forward = dz * basis.cos() - dx * basis.sin();
+        double right = -dx * basis.cos() - dz * basis.sin();
+        double absForward = Math.abs(forward);
+        double absRight = Math.abs(right);
+        double forwardEdge = absForward * OCTANT_SLOPE;
+        double rightEdge = absRight * OCTANT_SLOPE;
+
+        double tolerance = (absForward + absRight) * TIE_EPSILON;
+        if (Math.abs(absRight - forwardEdge) <= tolerance || Math.abs(absForward - rightEdge) <= tolerance) {
+            return classifyByAngle(basis.yaw(), dx, dz);
+        }
+
+        if (absRight < forwardEdge) return forward > 0.0 ? Direction.NORTH : Direction.SOUTH;
+        if (absForward < rightEdge) return right > 0.0 ? Direction.EAST : Direction.WEST;
+        if (forward > 0.0) return right > 0.0 ? Direction.NORTHEAST : Direction.NORTHWEST;
+        return right > 0.0 ? Direction.SOUTHEAST : Direction.SOUTHWEST;
+    }
+
+    static Direction classifyByAngle(float viewerYaw, double dx, double dz) {
+        float yaw = normalize(viewerYaw);
 
         double angle = Math.toDegrees(Math.atan2(dz, dx)) - 90;
         angle = ((angle % 360) + 360) % 360;
@@ -17,13 +57,13 @@ public final class DirectionUtils {
         double relative = angle - yaw;
         relative = ((relative % 360) + 360) % 360;
 
-        if (relative < 22.5 || relative >= 337.5) return "north";
-        if (relative < 67.5) return "northeast";
-        if (relative < 112.5) return "east";
-        if (relative < 157.5) return "southeast";
-        if (relative < 202.5) return "south";
-        if (relative < 247.5) return "southwest";
-        if (relative < 292.5) return "west";
-        return "northwest";
+        int octant = (int) ((relative + 22.5) / 45.0);
+        return Direction.byOrdinal(octant & 7);
     }
-}
\ No newline at end of file
+
+    private static float normalize(float yaw) {
+        return ((yaw % 360) + 360) % 360;
+    }
+
+    public record Basis(float yaw, double sin, double cos) {}
+}
@@ -0,0 +1,100 @@
+package org.gw.nearmanager.utils;
+
+import net.kyori.adventure.text.Component;
+
+import java.util.function.IntFunction;
+
+public final class FragmentPool {
+
+    public static final int MAX_CAPACITY = 16384;
+    private static final int NUMBER_CAPACITY = 256;
+
+    private final IntFunction<String> formatter;
+    private final String[] distanceTexts;
+    private final Component[] distanceFragments;
+    private final Component[] numberFragments = new Component[NUMBER_CAPACITY];
+
+    private final String declensionOne;
+    private final String declensionOther;
+    private final Component declensionOneFragment;
+    private final Component declensionOtherFragment;
+
+    private final String[] directionTexts;
+    private final Component[] directionFragments;
+
+    public FragmentPool(IntFunction<String> formatter, int maxDistance, String declensionOne, String declensionOther,
+                        String[] directionGlyphs) {
+        int size = Math.max(0, Math.min(maxDistance, MAX_CAPACITY - 1)) + 1;
+        this.formatter = formatter;
+        this.distanceTexts = new String[size];
+        this.distanceFragments = new Component[size];
+
+        this.declensionOne = declensionOne;
+        this.declensionOther = declensionOther;
+        this.declensionOneFragment = HexColors.translateToComponent(declensionOne);
+        this.declensionOtherFragment = HexColors.translateToComponent(declensionOther);
+
+        this.directionTexts = directionGlyphs.clone();
+        this.directionFragments = new Component[directionTexts.length];
+        for (int i = 0; i < directionTexts.length; i++) {
+            directionFragments[i] = HexColors.translateToComponent(directionTexts[i]);
+        }
+    }
+
+    public String distanceText(int distance) {
+        if (distance < 0 || distance >= distanceTexts.length) return formatter.apply(distance);
+
+        String text = distanceTexts[distance];
+        if (text == null) {
+            text = formatter.apply(distance);
+            distanceTexts[distance] = text;
+        }
+        return text;
+    }
+
+    public Component distance(int distance) {
+        if (distance < 0 || distance >= distanceFragments.length) return Component.text(formatter.apply(distance));
+
+        Component fragment = distanceFragments[distance];
+        if (fragment == null) {
+            fragment = Component.text(distanceText(distance));
+            distanceFragments[distance] = fragment;
+        }
+        return fragment;
+    }
+
+    public Component number(int number) {
+        if (number < 0 || number >= NUMBER_CAPACITY) return Component.text(number);
+
+        Component fragment = numberFragments[number];
+        if (fragment == null) {
+            fragment = Component.text(number);
+            numberFragments[number] = fragment;
+        }
+        return fragment;
+    }
+
+    public String declensionText(int number) {
+        return isSingular(number) ? declensionOne : declensionOther;
+    }
+
+    public Component declension(int number) {
+        return isSingular(number) ? declensionOneFragment : declensionOtherFragment;
+    }
+
+    public String directionText(Direction direction) {
+        return directionTexts[direction.ordinal()];
+    }
+
+    public Component direction(Direction direction) {
+        return directionFragments[direction.ordinal()];
+    }
+
+    public int capacity() {
+        return distanceTexts.length;
+    }
+
+    private static boolean isSingular(int number) {
+        return number > 0 && number % 10 == 1 && number % 100 != 11;
+    }
+}
@@ -15,7 +15,11 @@ public final class HexColors {
 
     public static String translate(String text) {
         if (text == null || text.isEmpty()) return "";
-        return LegacyComponentSerializer.legacySection().serialize(translateToComponent(text));
+        return serialize(translateToComponent(text));
+    }
+
+    public static String serialize(Component component) {
+        return LegacyComponentSerializer.legacySection().serialize(component);
     }
 
     public static Component translateToComponent(String message) {
@@ -13,6 +13,10 @@ public final class PlaceholderAPIHook {
         enabled = Bukkit.getPluginManager().isPluginEnabled("PlaceholderAPI");
     }
 
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
     public static String parse(Player player, String text) {
         if (text == null || text.isEmpty()) return "";
         if (!enabled) return text;
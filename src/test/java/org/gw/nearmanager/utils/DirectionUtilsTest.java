@@ -0,0 +1,69 @@
+package org.gw.nearmanager.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DirectionUtilsTest {
+
+    private static final double[] UNITS = {-1.0, 0.0, 1.0};
+    private static final double[] SCALES = {0.37, 1.0, 7.3, 1000.0, 30000.0};
+    private static final float[] TURNS = {-720.0f, -360.0f, 0.0f, 360.0f};
+    private static final int GRID = 60;
+    private static final float YAW_STEP = 0.7f;
+
+    @Test
+    void matchesBaselineAroundOctantBoundaries() {
+        for (double ux : UNITS) {
+            for (double uz : UNITS) {
+                if (ux == 0.0 && uz == 0.0) continue;
+
+                for (double scale : SCALES) {
+                    double dx = ux * scale;
+                    double dz = uz * scale;
+                    double angle = Math.toDegrees(Math.atan2(dz, dx)) - 90;
+
+                    for (int octant = 0; octant < 8; octant++) {
+                        // yaw, при котором относительный угол цели ровно на границе октанта
+                        float boundary = (float) (angle - (22.5 + 45.0 * octant));
+                        for (float turn : TURNS) {
+                            float yaw = boundary + turn;
+                            check(yaw, dx, dz);
+                            check(Math.nextUp(yaw), dx, dz);
+                            check(Math.nextDown(yaw), dx, dz);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void matchesBaselineOnGrid() {
+        for (float yaw = -360.0f; yaw <= 360.0f; yaw += YAW_STEP) {
+            for (int dx = -GRID; dx <= GRID; dx++) {
+                for (int dz = -GRID; dz <= GRID; dz++) {
+                    check(yaw, dx, dz);
+                }
+            }
+        }
+    }
+
+    @Test
+    void batchMatchesSingle() {
+        double[] xs = {10.0, -3.0, 0.0, 25.5, -40.0};
+        double[] zs = {0.0, 12.0, -7.0, 25.5, -1.0};
+        Direction[] out = new Direction[xs.length];
+        DirectionUtils.getDirections(1.0, 2.0, 33.0f, xs, zs, xs.length, out);
+
+        for (int i = 0; i < xs.length; i++) {
+            assertEquals(DirectionUtils.getDirection(1.0, 2.0, 33.0f, xs[i], zs[i]), out[i]);
+        }
+    }
+
+    private static void check(float yaw, double dx, double dz) {
+        String expected = BaselineDirection.getDirectionKey(0.0, 0.0, yaw, dx, dz);
+        String actual = DirectionUtils.getDirection(0.0, 0.0, yaw, dx, dz).key();
+        assertEquals(expected, actual, () -> "yaw=" + yaw + ", dx=" + dx + ", dz=" + dz);
+    }
+}